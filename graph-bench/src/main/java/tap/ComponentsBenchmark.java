@@ -0,0 +1,36 @@
+package tap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentsBenchmark {
+
+    @Benchmark
+    public List<Collection<Integer>> algorithmA(GraphState state) {
+        return state.unweighted.algorithmA();
+    }
+
+    @Benchmark
+    public List<Collection<Integer>> algorithmRA(GraphState state) {
+        return state.unweighted.algorithmRA();
+    }
+
+    @Benchmark
+    public List<Collection<Integer>> algorithmS(GraphState state) {
+        return state.unweighted.algorithmS();
+    }
+}
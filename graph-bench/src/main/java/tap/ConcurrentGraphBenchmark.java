@@ -0,0 +1,99 @@
+package tap;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Readers of a ConcurrentGraph next to one writer, all in one JMH group so that
+ * they run at the same time: the writer inserts a random edge and deletes the one
+ * it inserted 1024 writes before, which keeps the graph's size steady; every
+ * reader runs a bfs from a random node and lists another node's neighbors. Scale
+ * the readers with -tg 1,N.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentGraphBenchmark {
+
+    @State(Scope.Group)
+    public static class Shared {
+        @Param({"14", "16"})
+        public int scale;
+
+        public ConcurrentGraph graph;
+        public int n;
+        // the generated nodes, which only ever lose edges
+        public int[] nodes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            graph = new ConcurrentGraph();
+            GraphGenerator.rmat(scale, 8, 42).generate((x, y, w) -> graph.insertEdge(x, y));
+            n = graph.bound();
+            nodes = graph.listNodes().stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private final SplittableRandom random = new SplittableRandom(-1);
+        // the last 1024 inserted edges, oldest at next
+        private final int[] sources = new int[1024];
+        private final int[] targets = new int[1024];
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = -1;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        private final SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write(Shared shared, Writer writer) {
+        int i = writer.next;
+        shared.graph.deleteEdge(writer.sources[i], writer.targets[i]);
+        int x = writer.random.nextInt(shared.n);
+        int y = writer.random.nextInt(shared.n);
+        shared.graph.insertEdge(x, y);
+        writer.sources[i] = x;
+        writer.targets[i] = y;
+        writer.next = (i + 1) & (writer.sources.length - 1);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public void read(Shared shared, Reader reader, Blackhole blackhole) {
+        List<Integer> order = shared.graph.bfs(shared.nodes[reader.random.nextInt(shared.nodes.length)]);
+        blackhole.consume(order);
+        blackhole.consume(shared.graph.listNeighbors(shared.nodes[reader.random.nextInt(shared.nodes.length)]));
+    }
+}
@@ -0,0 +1,85 @@
+package tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The graph a benchmark runs on. The fixtures are read from -Dgraph.data (default
+ * ../graph); synthetic graphs are written to a temporary edge list first so that
+ * loadFromFile is measured the same way for every input. graphExample.txt is
+ * oriented and starts with an "n m" header, as in Main; everything else is
+ * undirected and headerless.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+
+    @Param({"example", "facebook", "rmat-14", "rmat-17", "er-14", "er-17"})
+    public String graph;
+
+    public File file;
+    public boolean header;
+    public boolean oriented;
+    public EdgeList edges;
+    public Graph unweighted;
+    // the same edges with seeded weights in 1..100
+    public Graph weighted;
+    public int source;
+    // the last node the bfs from source reaches
+    public int target;
+    // half the true distance to target: admissible and consistent, but not exact
+    public int[] heuristic;
+    // 64 sources spread over the bfs order from source, for the batched traversals
+    public int[] sources;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File data = new File(System.getProperty("graph.data", "../graph"));
+        oriented = graph.equals("example");
+        header = graph.equals("example");
+        if (graph.equals("example")) {
+            file = new File(data, "graphExample.txt");
+        } else if (graph.equals("facebook")) {
+            file = new File(data, "facebook_combined.txt");
+        } else {
+            int scale = Integer.parseInt(graph.substring(graph.indexOf('-') + 1));
+            GraphGenerator generator = graph.startsWith("rmat")
+                    ? GraphGenerator.rmat(scale, 16, 42)
+                    : GraphGenerator.erdosRenyi(1 << scale, 16L << scale, 42);
+            file = File.createTempFile(graph, ".txt");
+            file.deleteOnExit();
+            generator.write(file);
+        }
+
+        edges = EdgeListLoader.load(file, false, header);
+        unweighted = new Graph(oriented, false);
+        weighted = new Graph(oriented, true);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < edges.size(); i++) {
+            int x = edges.getSources()[i];
+            int y = edges.getTargets()[i];
+            unweighted.insertEdge(x, y);
+            weighted.insertEdge(x, y, 1 + random.nextInt(100));
+        }
+
+        source = unweighted.listEdges().get(0).getA();
+        BfsResult bfs = ParallelBfs.run(unweighted, source);
+        target = bfs.order()[bfs.reached() - 1];
+        sources = new int[64];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = bfs.order()[(int) ((long) i * bfs.reached() / sources.length)];
+        }
+        ShortestPathTree toTarget = Dijkstra.run(CsrGraph.reverse(weighted), target);
+        heuristic = new int[weighted.bound()];
+        for (int x = 0; x < heuristic.length; x++) {
+            long distance = toTarget.distance(x);
+            heuristic[x] = distance == ShortestPathTree.UNREACHABLE ? 0 : (int) (distance / 2);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package tap;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadBenchmark {
+
+    @Benchmark
+    public Graph loadFromFile(GraphState state) {
+        Graph graph = new Graph(state.oriented, false);
+        graph.loadFromFile(state.file, state.header);
+        return graph;
+    }
+
+    // every edge of the input inserted one by one into an empty graph
+    @Benchmark
+    public Graph insertEdge(GraphState state) {
+        int[] sources = state.edges.getSources();
+        int[] targets = state.edges.getTargets();
+        Graph graph = new Graph(state.oriented, false);
+        for (int i = 0; i < state.edges.size(); i++) {
+            graph.insertEdge(sources[i], targets[i]);
+        }
+        return graph;
+    }
+
+    // the same edges handed over as one batch
+    @Benchmark
+    public Graph insertEdges(GraphState state) {
+        Graph graph = new Graph(state.oriented, false);
+        graph.insertEdges(state.edges.getSources(), state.edges.getTargets(), null, state.edges.size());
+        return graph;
+    }
+}
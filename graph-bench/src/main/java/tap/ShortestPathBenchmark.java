@@ -0,0 +1,64 @@
+package tap;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShortestPathBenchmark {
+
+    // a cache with room for the distances from all 64 sources
+    @State(Scope.Thread)
+    public static class CacheState {
+        QueryCache cache;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(GraphState state) {
+            cache = new QueryCache(state.weighted, 64L * (96 + 8L * state.weighted.bound()));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> disjktra(GraphState state) {
+        return state.weighted.disjktra(state.source);
+    }
+
+    @Benchmark
+    public List<Integer> deltaStepping(GraphState state) {
+        return state.weighted.deltaStepping(state.source);
+    }
+
+    @Benchmark
+    public List<Integer> aStar(GraphState state) {
+        int[] h = state.heuristic;
+        return state.weighted.aStar(state.source, state.target, x -> h[x]);
+    }
+
+    @Benchmark
+    public PathResult bidirectionalDijkstra(GraphState state) {
+        return state.weighted.bidirectionalDijkstra(state.source, state.target);
+    }
+
+    // the same 64 sources over and over, so after the first round every query hits
+    @Benchmark
+    public long cachedDijkstra(GraphState state, CacheState cache) {
+        int source = state.sources[cache.next++ & 63];
+        return cache.cache.dijkstra(source).distance(state.target);
+    }
+}
@@ -0,0 +1,90 @@
+package tap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraversalBenchmark {
+
+    @Benchmark
+    public List<Integer> bfs(GraphState state) {
+        return state.unweighted.bfs(state.source);
+    }
+
+    @Benchmark
+    public List<Integer> dfs(GraphState state) {
+        return state.unweighted.dfs(state.source);
+    }
+
+    @Benchmark
+    public List<Integer> pbfs(GraphState state) {
+        return state.unweighted.pbfs(state.source);
+    }
+
+    @Benchmark
+    public List<Integer> dobfs(GraphState state) {
+        return state.unweighted.dobfs(state.source);
+    }
+
+    // arcs inspected by each strategy, reported as secondary results next to the timings
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EdgesVisited {
+        public long topDown;
+        public long directionOptimizing;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            topDown = 0;
+            directionOptimizing = 0;
+        }
+    }
+
+    // both searches from the same source; fails if they disagree on a depth
+    @Benchmark
+    public void edgesVisited(GraphState state, EdgesVisited edges) {
+        BfsResult topDown = ParallelBfs.run(state.unweighted, state.source);
+        BfsResult optimized = DirectionOptimizingBfs.run(state.unweighted, state.source);
+        if (!Arrays.equals(optimized.depths(), topDown.depths()))
+            throw new RuntimeException("Depths differ for source " + state.source);
+        edges.topDown += topDown.edgesVisited();
+        edges.directionOptimizing += optimized.edgesVisited();
+    }
+
+    @Benchmark
+    public int[][] msBfs64(GraphState state) {
+        return MultiSourceBfs.run(state.unweighted, state.sources);
+    }
+
+    // the same 64 traversals one after another, for comparison with msBfs64
+    @Benchmark
+    public void bfs64(GraphState state, Blackhole blackhole) {
+        for (int source : state.sources) {
+            blackhole.consume(ParallelBfs.run(state.unweighted, source));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> lexBfs(GraphState state) {
+        return state.unweighted.lexBfs(state.source);
+    }
+}
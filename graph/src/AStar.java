@@ -0,0 +1,100 @@
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Point-to-point A* with an indexed open set and per-node state flags, so open/closed
+ * membership is O(1). The heuristic is asked once per node. With an inconsistent
+ * heuristic closed nodes are reopened when a shorter path to them turns up.
+ */
+public class AStar {
+    private static final byte NEW = 0;
+    private static final byte OPEN = 1;
+    private static final byte CLOSED = 2;
+
+    private static class Search implements NeighborConsumer {
+        private final IntUnaryOperator heuristic;
+        private final long[] g;
+        private final long[] h;
+        private final int[] predecessors;
+        private final byte[] state;
+        private final IndexedHeap open;
+        private int current;
+        private long scanned;
+        private long relaxed;
+        private long pushes;
+        private long decreases;
+
+        private Search(IGraph graph, IntUnaryOperator heuristic) {
+            int bound = graph.bound();
+            this.heuristic = heuristic;
+            this.g = new long[bound];
+            this.h = new long[bound];
+            this.predecessors = new int[bound];
+            this.state = new byte[bound];
+            this.open = new IndexedHeap(bound);
+            Arrays.fill(g, ShortestPathTree.UNREACHABLE);
+            Arrays.fill(predecessors, -1);
+        }
+
+        private void push(int y, long gy) {
+            if (state[y] == NEW) {
+                h[y] = heuristic.applyAsInt(y);
+            }
+            g[y] = gy;
+            if (state[y] == OPEN) {
+                if (Metrics.ENABLED) decreases++;
+                open.decreaseKey(y, gy + h[y]);
+            } else {
+                if (Metrics.ENABLED) pushes++;
+                open.insert(y, gy + h[y]);
+                state[y] = OPEN;
+            }
+        }
+
+        @Override
+        public void accept(int y, int weight) {
+            if (weight < 0)
+                throw new RuntimeException("Negative weight on edge " + current + " " + y);
+            if (Metrics.ENABLED) scanned++;
+            long gy = g[current] + weight;
+            if (gy < g[y]) {
+                if (Metrics.ENABLED) relaxed++;
+                predecessors[y] = current;
+                push(y, gy);
+            }
+        }
+    }
+
+    public static ShortestPathTree run(IGraph graph, int start, int end, IntUnaryOperator heuristic) {
+        if (!graph.isWeighted())
+            throw new RuntimeException("Graph not weighted");
+        if (start < 0 || start >= graph.bound())
+            throw new RuntimeException("Node " + start + " not in graph");
+
+        Metrics.Run metrics = Metrics.start("aStar");
+        Search search = new Search(graph, heuristic);
+        search.push(start, 0);
+        long pops = 0;
+
+        while (!search.open.isEmpty()) {
+            int node = search.open.poll();
+            if (Metrics.ENABLED) pops++;
+            search.state[node] = CLOSED;
+            if (node == end) {
+                break;
+            }
+            search.current = node;
+            graph.forEachNeighbor(node, search);
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, pops);
+            metrics.add(Metrics.Counter.EDGES_SCANNED, search.scanned);
+            metrics.add(Metrics.Counter.EDGES_RELAXED, search.relaxed);
+            metrics.add(Metrics.Counter.HEAP_PUSHES, search.pushes);
+            metrics.add(Metrics.Counter.HEAP_POPS, pops);
+            metrics.add(Metrics.Counter.HEAP_DECREASES, search.decreases);
+            metrics.finish();
+        }
+        return new ShortestPathTree(start, search.g, search.predecessors);
+    }
+}
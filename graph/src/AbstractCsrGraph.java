@@ -0,0 +1,295 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Read-only IGraph over a compressed sparse row layout. Subclasses decide where the
+ * offset, target and weight arrays live; every query and traversal is written
+ * against the accessors below. Rows are sorted by target and hold no duplicates.
+ */
+public abstract class AbstractCsrGraph implements IGraph {
+    protected final BitSet nodes;
+    protected final int numberOfNodes;
+    protected final int numberOfEdges;
+    protected final boolean oriented;
+    protected final boolean weighted;
+
+    protected AbstractCsrGraph(BitSet nodes, int numberOfEdges, boolean oriented, boolean weighted) {
+        this.nodes = nodes;
+        this.numberOfNodes = nodes.cardinality();
+        this.numberOfEdges = numberOfEdges;
+        this.oriented = oriented;
+        this.weighted = weighted;
+    }
+
+    @Override
+    public abstract int bound();
+
+    public abstract int offset(int x);
+
+    public abstract int target(int i);
+
+    // 0 when the graph is not weighted
+    public abstract int weight(int i);
+
+    public int numberOfArcs() {
+        return offset(bound());
+    }
+
+    public BitSet nodes() {
+        return (BitSet) nodes.clone();
+    }
+
+    private void checkNode(int x) {
+        if (x < 0 || !nodes.get(x))
+            throw new RuntimeException("Node " + x + " not in graph");
+    }
+
+    @Override
+    public void saveBinary(File file) throws IOException {
+        BinaryGraphFormat.write(this, file);
+    }
+
+    @Override
+    public void loadFromFile(File file) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public Set<Integer> listNodes() {
+        Set<Integer> result = new HashSet<>(numberOfNodes * 2);
+        nodes.stream().forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public boolean containsNode(int x) {
+        return x >= 0 && nodes.get(x);
+    }
+
+    @Override
+    public List<Pair> listEdges() {
+        List<Pair> result = new ArrayList<>(numberOfEdges);
+        for (int x = 0; x < bound(); x++) {
+            for (int i = offset(x); i < offset(x + 1); i++) {
+                if (oriented || x <= target(i)) {
+                    result.add(new Pair(x, target(i)));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Integer> listNeighbors(int x) {
+        if (x < 0 || x >= bound()) {
+            return List.of();
+        }
+        List<Integer> result = new ArrayList<>(offset(x + 1) - offset(x));
+        for (int i = offset(x); i < offset(x + 1); i++) {
+            result.add(target(i));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Pair> listNeighborsWithWeight(int x) {
+        if (!weighted)
+            throw new RuntimeException("Graph not weighted");
+        if (x < 0 || x >= bound()) {
+            return List.of();
+        }
+        List<Pair> result = new ArrayList<>(offset(x + 1) - offset(x));
+        for (int i = offset(x); i < offset(x + 1); i++) {
+            result.add(new Pair(target(i), weight(i)));
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachNeighbor(int x, IntConsumer action) {
+        if (x < 0 || x >= bound()) {
+            return;
+        }
+        for (int i = offset(x), end = offset(x + 1); i < end; i++) {
+            action.accept(target(i));
+        }
+    }
+
+    @Override
+    public void forEachNeighbor(int x, NeighborConsumer action) {
+        if (x < 0 || x >= bound()) {
+            return;
+        }
+        for (int i = offset(x), end = offset(x + 1); i < end; i++) {
+            action.accept(target(i), weight(i));
+        }
+    }
+
+    @Override
+    public boolean anyNeighbor(int x, IntPredicate test) {
+        if (x < 0 || x >= bound()) {
+            return false;
+        }
+        for (int i = offset(x), end = offset(x + 1); i < end; i++) {
+            if (test.test(target(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int numberOfNodes() {
+        return numberOfNodes;
+    }
+
+    @Override
+    public int numberOfEdges() {
+        return numberOfEdges;
+    }
+
+    @Override
+    public boolean isOriented() {
+        return oriented;
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    @Override
+    public int grad(int x) {
+        if (x < 0 || x >= bound()) {
+            return 0;
+        }
+        return offset(x + 1) - offset(x);
+    }
+
+    @Override
+    public boolean areAdjacent(int x, int y) {
+        if (x < 0 || x >= bound()) {
+            return false;
+        }
+        int low = offset(x);
+        int high = offset(x + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int t = target(mid);
+            if (t < y) {
+                low = mid + 1;
+            } else if (t > y) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void insertEdge(Pair p) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public void insertEdge(int x, int y) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public void insertEdge(int x, int y, int weight) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public void deleteEdge(Pair p) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public void deleteEdge(int x, int y) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public void deleteNode(int x) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public void contrEdge(Pair p) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is immutable");
+    }
+
+    @Override
+    public List<Integer> bfs(int s) {
+        checkNode(s);
+        List<Integer> result = new ArrayList<>();
+        boolean[] visited = new boolean[bound()];
+        int[] queue = new int[numberOfNodes];
+        int head = 0;
+        int tail = 0;
+
+        visited[s] = true;
+        queue[tail++] = s;
+
+        while (head < tail) {
+            int x = queue[head++];
+            result.add(x);
+
+            for (int i = offset(x), end = offset(x + 1); i < end; i++) {
+                int y = target(i);
+                if (!visited[y]) {
+                    visited[y] = true;
+                    queue[tail++] = y;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Integer> dfs(int s) {
+        checkNode(s);
+        List<Integer> result = new ArrayList<>();
+        boolean[] visited = new boolean[bound()];
+        int[] stack = new int[numberOfNodes];
+        int top = 0;
+
+        visited[s] = true;
+        stack[top++] = s;
+
+        while (top > 0) {
+            int x = stack[--top];
+            result.add(x);
+
+            for (int i = offset(x), end = offset(x + 1); i < end; i++) {
+                int y = target(i);
+                if (!visited[y]) {
+                    visited[y] = true;
+                    stack[top++] = y;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Collection<Integer>> algorithmA() {
+        return ConnectedComponents.components(this, ConnectedComponents.Algorithm.A);
+    }
+
+    @Override
+    public List<Collection<Integer>> algorithmRA() {
+        return ConnectedComponents.components(this, ConnectedComponents.Algorithm.RA);
+    }
+
+    @Override
+    public List<Collection<Integer>> algorithmS() {
+        return ConnectedComponents.components(this, ConnectedComponents.Algorithm.S);
+    }
+}
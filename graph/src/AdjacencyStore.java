@@ -0,0 +1,732 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Mutable adjacency over primitive arrays: every node owns a growable int[] row of
+ * targets (and a parallel int[] row of weights when weighted). A LongHashSet of edge
+ * keys answers adjacency in O(1) and keeps duplicate edges out, so inserting is
+ * amortized O(1). Undirected edges are stored in both rows, a loop once, and keyed by
+ * (min, max); oriented graphs also keep in-rows so a node can be removed without
+ * scanning the whole graph.
+ * <p>
+ * Every entry records the position of its twin, the same edge seen from the other
+ * endpoint. Deleting an edge or a node overwrites the entries with a tombstone in
+ * O(degree) without moving anything, so deleting while iterating a row is safe.
+ * Tombstones are skipped by the iterators and reclaimed when a full row would
+ * otherwise grow, or all at once by compact().
+ * <p>
+ * Rows live in blocks of 1024, and snapshot() hands out a read-only store that shares
+ * all of them. After a snapshot the first write to a block copies its row directory,
+ * and the first write to a row copies that row. A snapshot therefore costs its block
+ * directory and node set, and old versions are reclaimed by the GC once nothing
+ * references them. A snapshot never changes, so any thread that receives it safely
+ * may read it while the store keeps taking writes.
+ */
+public class AdjacencyStore {
+    private static final int MIN_ROW = 4;
+    private static final int TOMBSTONE = -1;
+    private static final int BLOCK_BITS = 10;
+    private static final int BLOCK = 1 << BLOCK_BITS;
+    private static final int BLOCK_MASK = BLOCK - 1;
+
+    // BLOCK consecutive rows; snapshots share blocks until the store writes to them
+    private static class Block {
+        private final int[][] targets;
+        private final int[][] twins;
+        private final int[][] weights;
+        private final int[] fill;
+        private final int[] dead;
+        // the epoch in which each row's arrays were last copied
+        private final int[] epochs;
+        private final int epoch;
+
+        private Block(boolean weighted, int epoch) {
+            this.targets = new int[BLOCK][];
+            this.twins = new int[BLOCK][];
+            this.weights = weighted ? new int[BLOCK][] : null;
+            this.fill = new int[BLOCK];
+            this.dead = new int[BLOCK];
+            this.epochs = new int[BLOCK];
+            this.epoch = epoch;
+            Arrays.fill(epochs, epoch);
+        }
+
+        // shares the rows themselves; they are copied one by one on their first write
+        private Block(Block source, int epoch) {
+            this.targets = source.targets.clone();
+            this.twins = source.twins.clone();
+            this.weights = source.weights == null ? null : source.weights.clone();
+            this.fill = source.fill.clone();
+            this.dead = source.dead.clone();
+            this.epochs = source.epochs.clone();
+            this.epoch = epoch;
+        }
+    }
+
+    private static class Rows {
+        private final boolean weighted;
+        private Block[] blocks = new Block[0];
+        private int allocated;
+        // bumped by every snapshot; blocks and rows of an older epoch are shared
+        private int epoch;
+        // the rows holding the twins; this for undirected graphs
+        private Rows partner = this;
+
+        private Rows(boolean weighted) {
+            this.weighted = weighted;
+        }
+
+        private Rows(Rows source) {
+            this.weighted = source.weighted;
+            this.blocks = Arrays.copyOf(source.blocks, source.allocated);
+            this.allocated = source.allocated;
+            this.epoch = source.epoch;
+        }
+
+        private void ensure(int bound) {
+            int needed = (bound + BLOCK - 1) >>> BLOCK_BITS;
+            if (needed > blocks.length) {
+                blocks = Arrays.copyOf(blocks, Math.max(needed, blocks.length + (blocks.length >> 1)));
+            }
+            for (; allocated < needed; allocated++) {
+                blocks[allocated] = new Block(weighted, epoch);
+            }
+        }
+
+        private Block block(int x) {
+            return blocks[x >>> BLOCK_BITS];
+        }
+
+        // the block of x, copied first if a snapshot still shares it
+        private Block ownBlock(int x) {
+            Block block = blocks[x >>> BLOCK_BITS];
+            if (block.epoch != epoch) {
+                block = new Block(block, epoch);
+                blocks[x >>> BLOCK_BITS] = block;
+            }
+            return block;
+        }
+
+        // the block of x with row x copied too if a snapshot still shares it
+        private Block own(int x) {
+            Block block = ownBlock(x);
+            int r = x & BLOCK_MASK;
+            if (block.epochs[r] != epoch) {
+                if (block.targets[r] != null) {
+                    block.targets[r] = block.targets[r].clone();
+                    block.twins[r] = block.twins[r].clone();
+                    if (weighted) block.weights[r] = block.weights[r].clone();
+                }
+                block.epochs[r] = epoch;
+            }
+            return block;
+        }
+
+        private int degree(int x) {
+            Block block = block(x);
+            return block.fill[x & BLOCK_MASK] - block.dead[x & BLOCK_MASK];
+        }
+
+        // index of the live entry y in row x, -1 if there is none
+        private int indexOf(int x, int y) {
+            Block block = block(x);
+            int r = x & BLOCK_MASK;
+            int[] row = block.targets[r];
+            for (int i = 0; i < block.fill[r]; i++) {
+                if (row[i] == y) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int twin(int x, int i) {
+            return block(x).twins[x & BLOCK_MASK][i];
+        }
+
+        private void setTwin(int x, int i, int j) {
+            own(x).twins[x & BLOCK_MASK][i] = j;
+        }
+
+        private int weight(int x, int i) {
+            return block(x).weights[x & BLOCK_MASK][i];
+        }
+
+        private void setWeight(int x, int i, int weight) {
+            own(x).weights[x & BLOCK_MASK][i] = weight;
+        }
+
+        private int append(int x, int y, int weight) {
+            reserve(x, 1);
+            return put(x, y, weight);
+        }
+
+        // makes row x private with room for extra more entries, growing or compacting it at most once
+        private void reserve(int x, int extra) {
+            Block block = own(x);
+            int r = x & BLOCK_MASK;
+            int[] row = block.targets[r];
+            if (row == null) {
+                resize(block, r, Math.max(MIN_ROW, extra));
+            } else if (block.fill[r] + extra > row.length) {
+                // enough tombstones make room in place, otherwise the row grows by half
+                int live = block.fill[r] - block.dead[r] + extra;
+                int capacity = block.dead[r] * 4 >= block.fill[r] && live <= row.length
+                        ? row.length : Math.max(live, row.length + (row.length >> 1));
+                if (block.dead[r] > 0) {
+                    compact(x, capacity);
+                } else {
+                    resize(block, r, capacity);
+                }
+            }
+        }
+
+        // appends to a row that reserve() has prepared
+        private int put(int x, int y, int weight) {
+            Block block = blocks[x >>> BLOCK_BITS];
+            int r = x & BLOCK_MASK;
+            int i = block.fill[r]++;
+            block.targets[r][i] = y;
+            if (weighted) block.weights[r][i] = weight;
+            return i;
+        }
+
+        // sets a twin in a row that reserve() has prepared
+        private void putTwin(int x, int i, int j) {
+            blocks[x >>> BLOCK_BITS].twins[x & BLOCK_MASK][i] = j;
+        }
+
+        private void kill(int x, int i) {
+            Block block = own(x);
+            block.targets[x & BLOCK_MASK][i] = TOMBSTONE;
+            block.dead[x & BLOCK_MASK]++;
+        }
+
+        private void resize(Block block, int r, int capacity) {
+            int[][] targets = block.targets;
+            int[][] twins = block.twins;
+            int[][] weights = block.weights;
+            targets[r] = targets[r] == null ? new int[capacity] : Arrays.copyOf(targets[r], capacity);
+            twins[r] = twins[r] == null ? new int[capacity] : Arrays.copyOf(twins[r], capacity);
+            if (weights != null) {
+                weights[r] = weights[r] == null ? new int[capacity] : Arrays.copyOf(weights[r], capacity);
+            }
+        }
+
+        // squeezes the tombstones out of row x into arrays of the given capacity, fixing the twins
+        private void compact(int x, int capacity) {
+            // the old arrays are only read, so a shared row needs no copy
+            Block block = ownBlock(x);
+            int r = x & BLOCK_MASK;
+            int[] row = block.targets[r];
+            int[] twin = block.twins[r];
+            int[] weight = weighted ? block.weights[r] : null;
+            int[] newRow = new int[capacity];
+            int[] newTwin = new int[capacity];
+            int[] newWeight = weight == null ? null : new int[capacity];
+            int k = 0;
+            for (int i = 0; i < block.fill[r]; i++) {
+                int y = row[i];
+                if (y == TOMBSTONE) {
+                    continue;
+                }
+                newRow[k] = y;
+                if (newWeight != null) newWeight[k] = weight[i];
+                if (partner == this && y == x) {
+                    // an undirected loop is its own twin
+                    newTwin[k] = k;
+                } else {
+                    newTwin[k] = twin[i];
+                    partner.setTwin(y, twin[i], k);
+                }
+                k++;
+            }
+            block.targets[r] = newRow;
+            block.twins[r] = newTwin;
+            if (weighted) block.weights[r] = newWeight;
+            block.fill[r] = k;
+            block.dead[r] = 0;
+            block.epochs[r] = epoch;
+        }
+
+        private void clear(int x) {
+            Block block = ownBlock(x);
+            int r = x & BLOCK_MASK;
+            block.targets[r] = null;
+            block.twins[r] = null;
+            if (weighted) block.weights[r] = null;
+            block.fill[r] = 0;
+            block.dead[r] = 0;
+            block.epochs[r] = epoch;
+        }
+    }
+
+    private final boolean oriented;
+    private final boolean weighted;
+    private final BitSet nodes;
+    // null in snapshots, which answer contains() by scanning the row
+    private final LongHashSet edges;
+    private final Rows out;
+    private final Rows in;
+    private final boolean frozen;
+    private int numberOfNodes;
+    private int numberOfEdges;
+    private int bound;
+
+    public AdjacencyStore(boolean oriented, boolean weighted) {
+        this.oriented = oriented;
+        this.weighted = weighted;
+        this.nodes = new BitSet();
+        this.edges = new LongHashSet();
+        this.frozen = false;
+        this.out = new Rows(weighted);
+        if (oriented) {
+            this.in = new Rows(false);
+            out.partner = in;
+            in.partner = out;
+        } else {
+            this.in = out;
+        }
+    }
+
+    private AdjacencyStore(AdjacencyStore source) {
+        this.oriented = source.oriented;
+        this.weighted = source.weighted;
+        this.nodes = (BitSet) source.nodes.clone();
+        this.edges = null;
+        this.frozen = true;
+        this.out = new Rows(source.out);
+        if (oriented) {
+            this.in = new Rows(source.in);
+            out.partner = in;
+            in.partner = out;
+        } else {
+            this.in = out;
+        }
+        this.numberOfNodes = source.numberOfNodes;
+        this.numberOfEdges = source.numberOfEdges;
+        this.bound = source.bound;
+    }
+
+    // a read-only view of the current state that copies only the node set and block directory;
+    // both stores share every row until this one writes to it and copies the block and row first
+    public AdjacencyStore snapshot() {
+        if (frozen) {
+            return this;
+        }
+        AdjacencyStore snapshot = new AdjacencyStore(this);
+        out.epoch++;
+        if (oriented) in.epoch++;
+        return snapshot;
+    }
+
+    public boolean isSnapshot() {
+        return frozen;
+    }
+
+    private void checkWritable() {
+        if (frozen)
+            throw new UnsupportedOperationException("Snapshots are read-only");
+    }
+
+    private long key(int x, int y) {
+        if (!oriented && x > y) {
+            return ((long) y << 32) | x;
+        }
+        return ((long) x << 32) | y;
+    }
+
+    // true if x was not a node yet
+    public boolean addNode(int x) {
+        if (x < 0)
+            throw new RuntimeException("Node ids must be non-negative: " + x);
+        checkWritable();
+        if (nodes.get(x)) {
+            return false;
+        }
+        nodes.set(x);
+        numberOfNodes++;
+        if (x >= bound) {
+            bound = x + 1;
+            out.ensure(bound);
+            in.ensure(bound);
+        }
+        return true;
+    }
+
+    // true if the edge is new; re-inserting an edge keeps the smaller weight
+    public boolean insert(int x, int y, int weight) {
+        checkWritable();
+        addNode(x);
+        addNode(y);
+        if (!edges.add(key(x, y))) {
+            if (weighted) {
+                lowerWeight(x, y, weight);
+                if (!oriented) lowerWeight(y, x, weight);
+            }
+            return false;
+        }
+        if (!oriented && x == y) {
+            int i = out.append(x, x, weight);
+            out.setTwin(x, i, i);
+        } else {
+            int i = out.append(x, y, weight);
+            int j = in.append(y, x, weight);
+            out.setTwin(x, i, j);
+            in.setTwin(y, j, i);
+        }
+        numberOfEdges++;
+        return true;
+    }
+
+    /**
+     * Inserts the edges src[i] -> dst[i] with weight w[i] for i < m, w being ignored on
+     * unweighted stores. The same as m calls to insert, but the batch is radix sorted
+     * by edge key first. Duplicates then collapse to their smallest weight in one scan,
+     * and every row the batch grows is resized at most once before the entries are
+     * appended. Returns the number of new edges.
+     */
+    public int insertAll(int[] src, int[] dst, int[] w, int m) {
+        checkWritable();
+        if (weighted && w == null)
+            throw new RuntimeException("Weight omitted!");
+        // sort keys pack the (canonical) pair into just the bits the largest id needs
+        int max = -1;
+        for (int i = 0; i < m; i++) {
+            if (src[i] < 0 || dst[i] < 0)
+                throw new RuntimeException("Node ids must be non-negative: " + Math.min(src[i], dst[i]));
+            max = Math.max(max, Math.max(src[i], dst[i]));
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(max);
+        long low = (1L << shift) - 1;
+        long[] keys = new long[m];
+        int[] weights = weighted ? Arrays.copyOf(w, m) : null;
+        for (int i = 0; i < m; i++) {
+            int x = src[i];
+            int y = dst[i];
+            keys[i] = !oriented && x > y ? (long) y << shift | x : (long) x << shift | y;
+        }
+        RadixSort.sort(keys, weights, m);
+        if (max >= bound) {
+            bound = max + 1;
+            out.ensure(bound);
+            in.ensure(bound);
+        }
+
+        // collapse duplicates, fold the batch into existing edges and keep the new ones in front
+        edges.reserve(m);
+        int fresh = 0;
+        int last = -1;
+        for (int i = 0; i < m; i++) {
+            long packed = keys[i];
+            int weight = weighted ? weights[i] : 0;
+            while (i + 1 < m && keys[i + 1] == packed) {
+                i++;
+                if (weighted) weight = Math.min(weight, weights[i]);
+            }
+            int x = (int) (packed >>> shift);
+            int y = (int) (packed & low);
+            if (x != last) {
+                addNode(x);
+                last = x;
+            }
+            addNode(y);
+            if (edges.add(key(x, y))) {
+                keys[fresh] = packed;
+                if (weighted) weights[fresh] = weight;
+                fresh++;
+            } else if (weighted) {
+                lowerWeight(x, y, weight);
+                if (!oriented) lowerWeight(y, x, weight);
+            }
+        }
+
+        // large batches size every row they touch up front; small ones grow rows as they go
+        boolean reserved = fresh >= bound >>> 6;
+        if (reserved) {
+            int[] outExtra = new int[bound];
+            int[] inExtra = oriented ? new int[bound] : outExtra;
+            for (int i = 0; i < fresh; i++) {
+                int x = (int) (keys[i] >>> shift);
+                int y = (int) (keys[i] & low);
+                outExtra[x]++;
+                if (oriented || x != y) inExtra[y]++;
+            }
+            for (int i = 0; i < fresh; i++) {
+                int x = (int) (keys[i] >>> shift);
+                int y = (int) (keys[i] & low);
+                if (outExtra[x] > 0) {
+                    out.reserve(x, outExtra[x]);
+                    outExtra[x] = 0;
+                }
+                if (inExtra[y] > 0) {
+                    in.reserve(y, inExtra[y]);
+                    inExtra[y] = 0;
+                }
+            }
+        }
+        for (int i = 0; i < fresh; i++) {
+            int x = (int) (keys[i] >>> shift);
+            int y = (int) (keys[i] & low);
+            int weight = weighted ? weights[i] : 0;
+            if (!oriented && x == y) {
+                if (!reserved) out.reserve(x, 1);
+                int j = out.put(x, x, weight);
+                out.putTwin(x, j, j);
+            } else {
+                if (!reserved) {
+                    out.reserve(x, 1);
+                    in.reserve(y, 1);
+                }
+                int j = out.put(x, y, weight);
+                int k = in.put(y, x, weight);
+                out.putTwin(x, j, k);
+                in.putTwin(y, k, j);
+            }
+        }
+        numberOfEdges += fresh;
+        return fresh;
+    }
+
+    private void lowerWeight(int x, int y, int weight) {
+        int i = out.indexOf(x, y);
+        if (weight < out.weight(x, i)) out.setWeight(x, i, weight);
+    }
+
+    // true if the edge was there; O(degree of x)
+    public boolean remove(int x, int y) {
+        checkWritable();
+        if (!contains(x, y)) {
+            return false;
+        }
+        edges.remove(key(x, y));
+        int i = out.indexOf(x, y);
+        int j = out.twin(x, i);
+        out.kill(x, i);
+        if (oriented || x != y) {
+            in.kill(y, j);
+        }
+        numberOfEdges--;
+        return true;
+    }
+
+    // drops x and every edge touching it; O(degree of x)
+    public boolean removeNode(int x) {
+        checkWritable();
+        if (!containsNode(x)) {
+            return false;
+        }
+        removeRow(out, x, true);
+        if (oriented) {
+            removeRow(in, x, false);
+        }
+        nodes.clear(x);
+        numberOfNodes--;
+        return true;
+    }
+
+    // tombstones the twins of every live entry of row x, then frees the row
+    private void removeRow(Rows rows, int x, boolean outgoing) {
+        Block block = rows.block(x);
+        int r = x & BLOCK_MASK;
+        int[] row = block.targets[r];
+        int[] twin = block.twins[r];
+        for (int i = 0; i < block.fill[r]; i++) {
+            int y = row[i];
+            if (y == TOMBSTONE) {
+                continue;
+            }
+            if (y != x || oriented) {
+                rows.partner.kill(y, twin[i]);
+            }
+            edges.remove(outgoing ? key(x, y) : key(y, x));
+            numberOfEdges--;
+        }
+        rows.clear(x);
+    }
+
+    // merges y into x: the edge between them disappears, y's other edges move to x; false if they are not adjacent
+    public boolean contract(int x, int y) {
+        checkWritable();
+        if (x == y || !contains(x, y) && !contains(y, x)) {
+            return false;
+        }
+        int[] outTargets = live(out, y);
+        int[] outWeights = liveWeights(out, y);
+        int[] inTargets = oriented ? live(in, y) : null;
+        int[] inWeights = oriented ? liveWeights(in, y) : null;
+        removeNode(y);
+        for (int i = 0; i < outTargets.length; i++) {
+            int z = outTargets[i];
+            if (z != x) insert(x, z == y ? x : z, outWeights[i]);
+        }
+        if (oriented) {
+            for (int i = 0; i < inTargets.length; i++) {
+                int z = inTargets[i];
+                if (z != x && z != y) insert(z, x, inWeights[i]);
+            }
+        }
+        return true;
+    }
+
+    private int[] live(Rows rows, int x) {
+        int[] result = new int[rows.degree(x)];
+        Block block = rows.block(x);
+        int r = x & BLOCK_MASK;
+        int k = 0;
+        for (int i = 0; i < block.fill[r]; i++) {
+            if (block.targets[r][i] != TOMBSTONE) result[k++] = block.targets[r][i];
+        }
+        return result;
+    }
+
+    // weights of the live entries in row order; for in-rows they are read from the twins
+    private int[] liveWeights(Rows rows, int x) {
+        int[] result = new int[rows.degree(x)];
+        if (!weighted) {
+            return result;
+        }
+        Block block = rows.block(x);
+        int r = x & BLOCK_MASK;
+        int k = 0;
+        for (int i = 0; i < block.fill[r]; i++) {
+            int y = block.targets[r][i];
+            if (y != TOMBSTONE) {
+                result[k++] = rows == out ? block.weights[r][i] : out.weight(y, block.twins[r][i]);
+            }
+        }
+        return result;
+    }
+
+    // reclaims every tombstone and trims rows and the edge set to their contents
+    public void compact() {
+        checkWritable();
+        for (int x = 0; x < bound; x++) {
+            if (out.block(x).targets[x & BLOCK_MASK] != null) out.compact(x, out.degree(x));
+            if (oriented && in.block(x).targets[x & BLOCK_MASK] != null) in.compact(x, in.degree(x));
+        }
+        edges.trim();
+    }
+
+    // number of tombstones waiting to be reclaimed
+    public long tombstones() {
+        long total = 0;
+        for (int x = 0; x < bound; x++) {
+            total += out.block(x).dead[x & BLOCK_MASK];
+            if (oriented) total += in.block(x).dead[x & BLOCK_MASK];
+        }
+        return total;
+    }
+
+    public boolean contains(int x, int y) {
+        if (x < 0 || y < 0) {
+            return false;
+        }
+        if (edges == null) {
+            return x < bound && out.indexOf(x, y) >= 0;
+        }
+        return edges.contains(key(x, y));
+    }
+
+    public boolean containsNode(int x) {
+        return x >= 0 && nodes.get(x);
+    }
+
+    public int degree(int x) {
+        return x >= 0 && x < bound ? out.degree(x) : 0;
+    }
+
+    public int inDegree(int x) {
+        return x >= 0 && x < bound ? in.degree(x) : 0;
+    }
+
+    public void forEach(int x, IntConsumer action) {
+        if (x < 0 || x >= bound) {
+            return;
+        }
+        Block block = out.block(x);
+        int r = x & BLOCK_MASK;
+        int[] row = block.targets[r];
+        for (int i = 0; i < block.fill[r]; i++) {
+            if (row[i] != TOMBSTONE) action.accept(row[i]);
+        }
+    }
+
+    public void forEach(int x, NeighborConsumer action) {
+        if (x < 0 || x >= bound) {
+            return;
+        }
+        Block block = out.block(x);
+        int r = x & BLOCK_MASK;
+        int[] row = block.targets[r];
+        int[] weight = weighted ? block.weights[r] : null;
+        for (int i = 0; i < block.fill[r]; i++) {
+            if (row[i] != TOMBSTONE) action.accept(row[i], weight == null ? 0 : weight[i]);
+        }
+    }
+
+    public boolean any(int x, IntPredicate test) {
+        if (x < 0 || x >= bound) {
+            return false;
+        }
+        Block block = out.block(x);
+        int r = x & BLOCK_MASK;
+        int[] row = block.targets[r];
+        for (int i = 0; i < block.fill[r]; i++) {
+            if (row[i] != TOMBSTONE && test.test(row[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the nodes with an edge into x; the same as forEach on undirected graphs
+    public void forEachIn(int x, IntConsumer action) {
+        if (x < 0 || x >= bound) {
+            return;
+        }
+        Block block = in.block(x);
+        int r = x & BLOCK_MASK;
+        int[] row = block.targets[r];
+        for (int i = 0; i < block.fill[r]; i++) {
+            if (row[i] != TOMBSTONE) action.accept(row[i]);
+        }
+    }
+
+    // in-edges with their weights, read through the twin of each in-row entry
+    public void forEachIn(int x, NeighborConsumer action) {
+        if (!oriented) {
+            forEach(x, action);
+            return;
+        }
+        if (x < 0 || x >= bound) {
+            return;
+        }
+        Block block = in.block(x);
+        int r = x & BLOCK_MASK;
+        int[] row = block.targets[r];
+        int[] twin = block.twins[r];
+        for (int i = 0; i < block.fill[r]; i++) {
+            int y = row[i];
+            if (y != TOMBSTONE) action.accept(y, weighted ? out.weight(y, twin[i]) : 0);
+        }
+    }
+
+    public BitSet nodes() {
+        return nodes;
+    }
+
+    public int numberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public int numberOfEdges() {
+        return numberOfEdges;
+    }
+
+    public int bound() {
+        return bound;
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a breadth-first search: the visit order level by level, plus the depth
+ * and BFS-tree parent of every node (-1 when the node was not reached).
+ */
+public class BfsResult {
+    private final int source;
+    private final int[] order;
+    private final int[] depth;
+    private final int[] parent;
+    private final long edgesVisited;
+
+    public BfsResult(int source, int[] order, int[] depth, int[] parent, long edgesVisited) {
+        this.source = source;
+        this.order = order;
+        this.depth = depth;
+        this.parent = parent;
+        this.edgesVisited = edgesVisited;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int[] order() {
+        return order;
+    }
+
+    public int depth(int x) {
+        return x >= 0 && x < depth.length ? depth[x] : -1;
+    }
+
+    public int parent(int x) {
+        return parent[x];
+    }
+
+    public int[] depths() {
+        return depth;
+    }
+
+    public int[] parents() {
+        return parent;
+    }
+
+    public int reached() {
+        return order.length;
+    }
+
+    // arcs inspected during the search
+    public long edgesVisited() {
+        return edgesVisited;
+    }
+
+    public List<Integer> toList() {
+        List<Integer> result = new ArrayList<>(order.length);
+        for (int x : order) {
+            result.add(x);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Point-to-point shortest paths searched from both ends at once: a forward search from
+ * the source over the out-edges and a backward one from the target over the in-edges,
+ * always advancing the side with the smaller open set. Every edge that reaches a node
+ * the other side has labeled offers a path of length mu; the search stops when the
+ * two smallest keys together can no longer beat mu.
+ * <p>
+ * Bidirectional A* uses the average potential of Ikeda et al.: with h_t estimating the
+ * distance to the target and h_s the distance from the source, the forward side keys
+ * nodes by g + (h_t - h_s) / 2 and the backward side by g + (h_s - h_t) / 2. Both sides
+ * then search the same reduced graph, which keeps the plain stopping rule correct as
+ * long as both heuristics are consistent. Keys are doubled to stay integral, and
+ * without heuristics the search is bidirectional Dijkstra.
+ */
+public class BidirectionalSearch {
+    private static final IntUnaryOperator NONE = x -> 0;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final int DEADLINE_CHECK = 1024;
+
+    private interface Adjacency {
+        void forEach(int x, NeighborConsumer action);
+    }
+
+    // the cheapest path found so far: through node, of length mu
+    private static class Meeting {
+        private long mu = ShortestPathTree.UNREACHABLE;
+        private int node = -1;
+    }
+
+    private static class Side implements NeighborConsumer {
+        private final Adjacency adjacency;
+        private final long[] potentials;
+        private final boolean[] known;
+        private final IntUnaryOperator toTarget;
+        private final IntUnaryOperator fromSource;
+        private final int sign;
+        private final long[] g;
+        private final int[] predecessors;
+        private final boolean[] settled;
+        private final IndexedHeap open;
+        private final Meeting meeting;
+        private Side other;
+        private int current;
+        private int pops;
+        private long scanned;
+        private long relaxed;
+        private long pushes;
+        private long decreases;
+
+        private Side(int bound, Adjacency adjacency, long[] potentials, boolean[] known,
+                     IntUnaryOperator toTarget, IntUnaryOperator fromSource, int sign, Meeting meeting) {
+            this.adjacency = adjacency;
+            this.potentials = potentials;
+            this.known = known;
+            this.toTarget = toTarget;
+            this.fromSource = fromSource;
+            this.sign = sign;
+            this.g = new long[bound];
+            this.predecessors = new int[bound];
+            this.settled = new boolean[bound];
+            this.open = new IndexedHeap(bound);
+            this.meeting = meeting;
+            Arrays.fill(g, ShortestPathTree.UNREACHABLE);
+            Arrays.fill(predecessors, -1);
+        }
+
+        // h_t - h_s, asked once per node for both sides
+        private long potential(int x) {
+            if (!known[x]) {
+                potentials[x] = (long) toTarget.applyAsInt(x) - fromSource.applyAsInt(x);
+                known[x] = true;
+            }
+            return sign * potentials[x];
+        }
+
+        private void push(int y, long gy) {
+            g[y] = gy;
+            long key = 2 * gy + potential(y);
+            if (open.contains(y)) {
+                if (Metrics.ENABLED) decreases++;
+                open.decreaseKey(y, key);
+            } else {
+                if (Metrics.ENABLED) pushes++;
+                open.insert(y, key);
+            }
+        }
+
+        private void expand() {
+            current = open.poll();
+            pops++;
+            settled[current] = true;
+            adjacency.forEach(current, this);
+        }
+
+        @Override
+        public void accept(int y, int weight) {
+            if (weight < 0)
+                throw new RuntimeException("Negative weight on edge " + current + " " + y);
+            if (Metrics.ENABLED) scanned++;
+            if (settled[y]) {
+                return;
+            }
+            long gy = g[current] + weight;
+            if (gy < g[y]) {
+                if (Metrics.ENABLED) relaxed++;
+                predecessors[y] = current;
+                push(y, gy);
+            }
+            if (other.g[y] != ShortestPathTree.UNREACHABLE && g[y] + other.g[y] < meeting.mu) {
+                meeting.mu = g[y] + other.g[y];
+                meeting.node = y;
+            }
+        }
+    }
+
+    // bidirectional Dijkstra
+    public static PathResult run(IGraph graph, int source, int target) {
+        return run(graph, source, target, NONE, NONE);
+    }
+
+    // bidirectional Dijkstra that gives up, throwing "timeout", once System.nanoTime() passes deadline
+    public static PathResult run(IGraph graph, int source, int target, long deadline) {
+        return run(graph, graph::forEachNeighbor, graph::forEachInNeighbor, source, target, NONE, NONE, deadline);
+    }
+
+    // bidirectional A*; both heuristics must be consistent lower bounds
+    public static PathResult run(IGraph graph, int source, int target,
+                                 IntUnaryOperator toTarget, IntUnaryOperator fromSource) {
+        return run(graph, graph::forEachNeighbor, graph::forEachInNeighbor, source, target, toTarget, fromSource, NO_DEADLINE);
+    }
+
+    // with reverse standing in for the in-edges, e.g. CsrGraph.reverse of an oriented CsrGraph
+    public static PathResult run(IGraph graph, IGraph reverse, int source, int target,
+                                 IntUnaryOperator toTarget, IntUnaryOperator fromSource) {
+        return run(graph, graph::forEachNeighbor, reverse::forEachNeighbor, source, target, toTarget, fromSource, NO_DEADLINE);
+    }
+
+    private static PathResult run(IGraph graph, Adjacency out, Adjacency in, int source, int target,
+                                  IntUnaryOperator toTarget, IntUnaryOperator fromSource, long deadline) {
+        if (!graph.isWeighted())
+            throw new RuntimeException("Graph not weighted");
+        int bound = graph.bound();
+        if (source < 0 || source >= bound)
+            throw new RuntimeException("Node " + source + " not in graph");
+        if (target < 0 || target >= bound)
+            throw new RuntimeException("Node " + target + " not in graph");
+
+        Metrics.Run metrics = Metrics.start("bidirectional");
+        Meeting meeting = new Meeting();
+        long[] potentials = new long[bound];
+        boolean[] known = new boolean[bound];
+        Side forward = new Side(bound, out, potentials, known, toTarget, fromSource, 1, meeting);
+        Side backward = new Side(bound, in, potentials, known, toTarget, fromSource, -1, meeting);
+        forward.other = backward;
+        backward.other = forward;
+        forward.push(source, 0);
+        backward.push(target, 0);
+        if (source == target) {
+            meeting.mu = 0;
+            meeting.node = source;
+        }
+
+        while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+            if (meeting.mu != ShortestPathTree.UNREACHABLE
+                    && forward.open.peekKey() + backward.open.peekKey() >= 2 * meeting.mu) {
+                break;
+            }
+            if ((forward.pops + backward.pops) % DEADLINE_CHECK == 0 && System.nanoTime() > deadline)
+                throw new RuntimeException("timeout");
+            if (forward.open.size() <= backward.open.size()) {
+                forward.expand();
+            } else {
+                backward.expand();
+            }
+        }
+
+        List<Integer> path = new ArrayList<>();
+        if (meeting.node != -1) {
+            for (int x = meeting.node; x != -1; x = forward.predecessors[x]) {
+                path.add(x);
+            }
+            Collections.reverse(path);
+            for (int x = backward.predecessors[meeting.node]; x != -1; x = backward.predecessors[x]) {
+                path.add(x);
+            }
+        }
+        int settled = forward.pops + backward.pops;
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, settled);
+            metrics.add(Metrics.Counter.EDGES_SCANNED, forward.scanned + backward.scanned);
+            metrics.add(Metrics.Counter.EDGES_RELAXED, forward.relaxed + backward.relaxed);
+            metrics.add(Metrics.Counter.HEAP_PUSHES, forward.pushes + backward.pushes);
+            metrics.add(Metrics.Counter.HEAP_POPS, settled);
+            metrics.add(Metrics.Counter.HEAP_DECREASES, forward.decreases + backward.decreases);
+            metrics.finish();
+        }
+        return new PathResult(meeting.mu, path, settled);
+    }
+}
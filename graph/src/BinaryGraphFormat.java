@@ -0,0 +1,112 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Little-endian on-disk CSR layout:
+ * <pre>
+ * int magic, int version, int flags (1 oriented, 2 weighted), int bound,
+ * int numberOfNodes, int numberOfEdges, int numberOfArcs, int presenceWords,
+ * long[presenceWords] node presence bitmap,
+ * int[bound + 1] offsets, int[numberOfArcs] targets, int[numberOfArcs] weights (weighted only)
+ * </pre>
+ * Loading maps the sections and serves queries straight from the mapped buffers.
+ */
+public class BinaryGraphFormat {
+    private static final int MAGIC = 0x47525343;
+    private static final int VERSION = 1;
+    private static final int ORIENTED = 1;
+    private static final int WEIGHTED = 2;
+    private static final int HEADER_BYTES = 32;
+
+    public static void write(AbstractCsrGraph graph, File file) throws IOException {
+        long[] presence = graph.nodes().toLongArray();
+        int bound = graph.bound();
+        int arcs = graph.numberOfArcs();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt((graph.isOriented() ? ORIENTED : 0) | (graph.isWeighted() ? WEIGHTED : 0));
+            buffer.putInt(bound);
+            buffer.putInt(graph.numberOfNodes());
+            buffer.putInt(graph.numberOfEdges());
+            buffer.putInt(arcs);
+            buffer.putInt(presence.length);
+
+            for (long word : presence) {
+                if (buffer.remaining() < Long.BYTES) flush(channel, buffer);
+                buffer.putLong(word);
+            }
+            for (int x = 0; x <= bound; x++) {
+                if (buffer.remaining() < Integer.BYTES) flush(channel, buffer);
+                buffer.putInt(graph.offset(x));
+            }
+            for (int i = 0; i < arcs; i++) {
+                if (buffer.remaining() < Integer.BYTES) flush(channel, buffer);
+                buffer.putInt(graph.target(i));
+            }
+            if (graph.isWeighted()) {
+                for (int i = 0; i < arcs; i++) {
+                    if (buffer.remaining() < Integer.BYTES) flush(channel, buffer);
+                    buffer.putInt(graph.weight(i));
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public static MappedCsrGraph map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC)
+                throw new IOException("Not a binary graph file: " + file);
+            if (header.getInt(4) != VERSION)
+                throw new IOException("Unsupported binary graph version " + header.getInt(4));
+            int flags = header.getInt(8);
+            int bound = header.getInt(12);
+            int numberOfEdges = header.getInt(20);
+            int arcs = header.getInt(24);
+            int presenceWords = header.getInt(28);
+
+            long position = HEADER_BYTES;
+            BitSet nodes = BitSet.valueOf(section(channel, position, (long) presenceWords * Long.BYTES).asLongBuffer());
+            position += (long) presenceWords * Long.BYTES;
+            MappedByteBuffer offsets = section(channel, position, (long) (bound + 1) * Integer.BYTES);
+            position += (long) (bound + 1) * Integer.BYTES;
+            MappedByteBuffer targets = section(channel, position, (long) arcs * Integer.BYTES);
+            position += (long) arcs * Integer.BYTES;
+            MappedByteBuffer weights = (flags & WEIGHTED) != 0
+                    ? section(channel, position, (long) arcs * Integer.BYTES) : null;
+
+            return new MappedCsrGraph(offsets.asIntBuffer(), targets.asIntBuffer(),
+                    weights == null ? null : weights.asIntBuffer(), nodes, numberOfEdges,
+                    (flags & ORIENTED) != 0, (flags & WEIGHTED) != 0);
+        }
+    }
+
+    private static MappedByteBuffer section(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Section of " + size + " bytes does not fit in a single mapping");
+        if (position + size > channel.size())
+            throw new IOException("Binary graph file is truncated");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+}
@@ -0,0 +1,960 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.NoSuchFileException;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Thread-safe graph for many readers next to concurrent writers.
+ * <p>
+ * Every node's adjacency is an immutable Row published through an atomic array, so
+ * readers never lock: they see each row either before or after a write, never
+ * halfway. Appending writes past the end of the current row's arrays and publishes
+ * a longer Row over the same arrays, which keeps inserts amortized O(1); deletions
+ * and weight changes copy the row. Writers lock the stripes of the rows they touch,
+ * always in stripe order, and count edges in a LongAdder. Edge keys live in one
+ * LongHashSet per stripe, guarded by that stripe's lock.
+ * <p>
+ * Every write that changes the graph takes a version from a clock, and every Row
+ * remembers the row it replaced. Writes complete in version order, advancing a
+ * watermark below which none is half applied; snapshot() pins the watermark without
+ * locking, and the Snapshot then reads, for each node, the newest row not later than
+ * its version, however long the writers carry on. Traversals on the graph itself run
+ * on such a snapshot. Writers cut the history below the oldest pinned version; a
+ * Snapshot is unpinned by close() or, failing that, once it is garbage collected,
+ * and unpinning the oldest one cuts the history it held on to.
+ */
+public class ConcurrentGraph implements IGraph {
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int STRIPES = 64;
+    private static final long LATEST = Long.MAX_VALUE;
+    private static final int[] EMPTY = new int[0];
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    // one version of an out- or in-row; later rows may share the arrays but only ever write past size
+    private static final class Row {
+        private final int[] targets;
+        private final int[] weights;
+        private final int size;
+        private final long version;
+        private final boolean removed;
+        // the row this one replaced; writers clear it once no snapshot can need it
+        private Row previous;
+
+        private Row(int[] targets, int[] weights, int size, long version, boolean removed, Row previous) {
+            this.targets = targets;
+            this.weights = weights;
+            this.size = size;
+            this.version = version;
+            this.removed = removed;
+            this.previous = previous;
+        }
+
+        private int indexOf(int y) {
+            for (int i = 0; i < size; i++) {
+                if (targets[i] == y) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // one write that changes the graph: its version, what it does to the counts and the rows it publishes
+    private static final class Write {
+        private final long version;
+        private final List<Row> rows = new ArrayList<>(2);
+        private int nodes;
+        private int edges;
+        private int bound;
+
+        private Write(long version) {
+            this.version = version;
+        }
+    }
+
+    // the newest version up to which every write is complete, and the counts as of it
+    private static final class Watermark {
+        private final long version;
+        private final int nodes;
+        private final int edges;
+        private final int bound;
+
+        private Watermark(long version, int nodes, int edges, int bound) {
+            this.version = version;
+            this.nodes = nodes;
+            this.edges = edges;
+            this.bound = bound;
+        }
+    }
+
+    private final boolean oriented;
+    private final boolean weighted;
+    private final AtomicReferenceArray<AtomicReferenceArray<Row>> out = new AtomicReferenceArray<>(1 << (31 - SEGMENT_BITS));
+    // the in-rows of an oriented graph; the out-rows again when undirected
+    private final AtomicReferenceArray<AtomicReferenceArray<Row>> in;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final LongHashSet[] keys = new LongHashSet[STRIPES];
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder edges = new LongAdder();
+    private final AtomicInteger bound = new AtomicInteger();
+    private volatile Watermark watermark = new Watermark(0, 0, 0, 0);
+    // snapshots between reading the watermark and pinning it
+    private final AtomicInteger pinning = new AtomicInteger();
+    // pinned version -> number of open snapshots on it
+    private final ConcurrentSkipListMap<Long, Integer> pinned = new ConcurrentSkipListMap<>();
+    // set when a write kept older rows for a snapshot; the next unpin sweeps them
+    private volatile boolean history;
+    private final Snapshot latest;
+
+    public ConcurrentGraph(boolean oriented, boolean weighted) {
+        this.oriented = oriented;
+        this.weighted = weighted;
+        this.in = oriented ? new AtomicReferenceArray<>(1 << (31 - SEGMENT_BITS)) : out;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            keys[i] = new LongHashSet();
+        }
+        this.latest = new Snapshot(this, LATEST, 0, 0, 0);
+    }
+
+    public ConcurrentGraph() {
+        this(false, false);
+    }
+
+    public static ConcurrentGraph of(IGraph graph) {
+        ConcurrentGraph result = new ConcurrentGraph(graph.isOriented(), graph.isWeighted());
+        for (int x = 0; x < graph.bound(); x++) {
+            if (graph.containsNode(x)) {
+                int source = x;
+                result.addNode(source);
+                graph.forEachNeighbor(source, (y, w) -> result.insertEdge(source, y, w));
+            }
+        }
+        return result;
+    }
+
+    // a consistent read-only view of the graph as of the last completed write; close it when done
+    public Snapshot snapshot() {
+        pinning.incrementAndGet();
+        try {
+            Watermark w = watermark;
+            pinned.merge(w.version, 1, Integer::sum);
+            return new Snapshot(this, w.version, w.nodes, w.edges, w.bound);
+        } finally {
+            pinning.decrementAndGet();
+        }
+    }
+
+    // -------- rows
+
+    private static int stripe(int x) {
+        return (x ^ (x >>> 7)) & (STRIPES - 1);
+    }
+
+    private static Row head(AtomicReferenceArray<AtomicReferenceArray<Row>> rows, int x) {
+        if (x < 0) {
+            return null;
+        }
+        AtomicReferenceArray<Row> segment = rows.get(x >>> SEGMENT_BITS);
+        return segment == null ? null : segment.get(x & SEGMENT_MASK);
+    }
+
+    // the newest row of x not later than version, null if x had none
+    private static Row row(AtomicReferenceArray<AtomicReferenceArray<Row>> rows, int x, long version) {
+        Row row = head(rows, x);
+        while (row != null && row.version > version) {
+            row = row.previous;
+        }
+        return row == null || row.removed ? null : row;
+    }
+
+    private void publish(Write w, AtomicReferenceArray<AtomicReferenceArray<Row>> rows, int x, Row row) {
+        int s = x >>> SEGMENT_BITS;
+        AtomicReferenceArray<Row> segment = rows.get(s);
+        if (segment == null) {
+            rows.compareAndSet(s, null, new AtomicReferenceArray<>(SEGMENT_SIZE));
+            segment = rows.get(s);
+        }
+        segment.set(x & SEGMENT_MASK, row);
+        w.rows.add(row);
+    }
+
+    private Write begin() {
+        return new Write(clock.incrementAndGet());
+    }
+
+    // waits for the writes before w, so that the watermark only passes whole versions
+    private void complete(Write w) {
+        Watermark last;
+        while ((last = watermark).version != w.version - 1) {
+            Thread.yield();
+        }
+        watermark = new Watermark(w.version, last.nodes + w.nodes, last.edges + w.edges, Math.max(last.bound, w.bound));
+        long horizon = horizon();
+        boolean kept = false;
+        for (Row row : w.rows) {
+            kept |= trim(row, horizon);
+        }
+        // after the rows are visible, so that a sweep clearing the flag meanwhile still finds them
+        if (kept) {
+            history = true;
+        }
+    }
+
+    // no snapshot, open or still to be taken, reads a version older than this
+    private long horizon() {
+        // read before pinning is: a snapshot that starts pinning later reads a watermark at least as new
+        long completed = watermark.version;
+        if (pinning.get() > 0) {
+            return Long.MIN_VALUE;
+        }
+        Map.Entry<Long, Integer> oldest = pinned.firstEntry();
+        return oldest == null ? completed : Math.min(oldest.getKey(), completed);
+    }
+
+    // the newest row at or below horizon is the last one anybody can read; returns whether older rows remain
+    private static boolean trim(Row row, long horizon) {
+        for (Row r = row; r != null; r = r.previous) {
+            if (r.version <= horizon) {
+                r.previous = null;
+                break;
+            }
+        }
+        return row.previous != null;
+    }
+
+    // cuts every row's history down to the horizon; needs no lock, since nothing below it is read again
+    private void trimHistory() {
+        history = false;
+        long horizon = horizon();
+        boolean kept = false;
+        for (int x = 0; x < bound.get(); x++) {
+            Row row = head(out, x);
+            kept |= row != null && trim(row, horizon);
+            if (oriented) {
+                row = head(in, x);
+                kept |= row != null && trim(row, horizon);
+            }
+        }
+        if (kept) {
+            history = true;
+        }
+    }
+
+    private Row append(AtomicReferenceArray<AtomicReferenceArray<Row>> rows, int x, int y, int weight, long version) {
+        Row head = head(rows, x);
+        int[] targets = head.targets;
+        int[] weights = head.weights;
+        if (head.size == targets.length) {
+            int capacity = Math.max(4, head.size + (head.size >> 1));
+            targets = Arrays.copyOf(targets, capacity);
+            if (weighted) weights = Arrays.copyOf(weights, capacity);
+        }
+        targets[head.size] = y;
+        if (weighted) weights[head.size] = weight;
+        return new Row(targets, weights, head.size + 1, version, false, head);
+    }
+
+    private Row without(AtomicReferenceArray<AtomicReferenceArray<Row>> rows, int x, int y, long version) {
+        Row head = head(rows, x);
+        int i = head.indexOf(y);
+        int[] targets = new int[head.size - 1];
+        int[] weights = weighted ? new int[head.size - 1] : null;
+        System.arraycopy(head.targets, 0, targets, 0, i);
+        System.arraycopy(head.targets, i + 1, targets, i, head.size - i - 1);
+        if (weighted) {
+            System.arraycopy(head.weights, 0, weights, 0, i);
+            System.arraycopy(head.weights, i + 1, weights, i, head.size - i - 1);
+        }
+        return new Row(targets, weights, targets.length, version, false, head);
+    }
+
+    private void lowerWeight(Write w, AtomicReferenceArray<AtomicReferenceArray<Row>> rows, int x, int y, int weight) {
+        Row head = head(rows, x);
+        int i = head.indexOf(y);
+        if (weight < head.weights[i]) {
+            int[] weights = Arrays.copyOf(head.weights, head.size);
+            weights[i] = weight;
+            publish(w, rows, x, new Row(Arrays.copyOf(head.targets, head.size), weights, head.size, w.version, false, head));
+        }
+    }
+
+    // -------- writes; the callers hold the stripes of every row they touch
+
+    private void lock(int x, int y) {
+        int a = Math.min(stripe(x), stripe(y));
+        int b = Math.max(stripe(x), stripe(y));
+        locks[a].lock();
+        if (b != a) locks[b].lock();
+    }
+
+    private void unlock(int x, int y) {
+        int a = Math.min(stripe(x), stripe(y));
+        int b = Math.max(stripe(x), stripe(y));
+        if (b != a) locks[b].unlock();
+        locks[a].unlock();
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    private long key(int x, int y) {
+        if (!oriented && x > y) {
+            return ((long) y << 32) | x;
+        }
+        return ((long) x << 32) | y;
+    }
+
+    private LongHashSet keys(int x, int y) {
+        return keys[stripe(oriented ? x : Math.min(x, y))];
+    }
+
+    private void addNodeLocked(int x, Write w) {
+        Row head = head(out, x);
+        if (head != null && !head.removed) {
+            return;
+        }
+        publish(w, out, x, new Row(EMPTY, weighted ? EMPTY : null, 0, w.version, false, head));
+        if (oriented) publish(w, in, x, new Row(EMPTY, weighted ? EMPTY : null, 0, w.version, false, head(in, x)));
+        nodes.increment();
+        w.nodes++;
+        bound.accumulateAndGet(x + 1, Math::max);
+        w.bound = Math.max(w.bound, x + 1);
+    }
+
+    private void insertLocked(int x, int y, int weight, Write w) {
+        addNodeLocked(x, w);
+        addNodeLocked(y, w);
+        if (!keys(x, y).add(key(x, y))) {
+            if (weighted) {
+                lowerWeight(w, out, x, y, weight);
+                if (oriented) {
+                    lowerWeight(w, in, y, x, weight);
+                } else if (x != y) {
+                    lowerWeight(w, out, y, x, weight);
+                }
+            }
+            return;
+        }
+        publish(w, out, x, append(out, x, y, weight, w.version));
+        if (oriented || x != y) publish(w, in, y, append(in, y, x, weight, w.version));
+        edges.increment();
+        w.edges++;
+    }
+
+    private boolean deleteLocked(int x, int y, Write w) {
+        if (x < 0 || y < 0 || !keys(x, y).remove(key(x, y))) {
+            return false;
+        }
+        publish(w, out, x, without(out, x, y, w.version));
+        if (oriented || x != y) publish(w, in, y, without(in, y, x, w.version));
+        edges.decrement();
+        w.edges--;
+        return true;
+    }
+
+    private boolean removeNodeLocked(int x, Write w) {
+        Row outRow = row(out, x, LATEST);
+        if (outRow == null) {
+            return false;
+        }
+        for (int i = 0; i < outRow.size; i++) {
+            int y = outRow.targets[i];
+            keys(x, y).remove(key(x, y));
+            if (y != x) publish(w, in, y, without(in, y, x, w.version));
+            edges.decrement();
+            w.edges--;
+        }
+        publish(w, out, x, new Row(EMPTY, null, 0, w.version, true, head(out, x)));
+        if (oriented) {
+            Row inRow = row(in, x, LATEST);
+            for (int i = 0; i < inRow.size; i++) {
+                int z = inRow.targets[i];
+                if (z == x) {
+                    continue;
+                }
+                keys(z, x).remove(key(z, x));
+                publish(w, out, z, without(out, z, x, w.version));
+                edges.decrement();
+                w.edges--;
+            }
+            publish(w, in, x, new Row(EMPTY, null, 0, w.version, true, inRow));
+        }
+        nodes.decrement();
+        w.nodes--;
+        return true;
+    }
+
+    public void addNode(int x) {
+        if (x < 0)
+            throw new RuntimeException("Node ids must be non-negative: " + x);
+        Write w = null;
+        lock(x, x);
+        try {
+            if (containsNode(x)) {
+                return;
+            }
+            w = begin();
+            addNodeLocked(x, w);
+        } finally {
+            unlock(x, x);
+            if (w != null) complete(w);
+        }
+    }
+
+    @Override
+    public void insertEdge(Pair pair) {
+        insertEdge(pair.getA(), pair.getB());
+    }
+
+    @Override
+    public void insertEdge(int x, int y) {
+        if (weighted)
+            throw new RuntimeException("Weight omitted!");
+        insertEdge(x, y, 0);
+    }
+
+    @Override
+    public void insertEdge(int x, int y, int weight) {
+        if (x < 0 || y < 0)
+            throw new RuntimeException("Node ids must be non-negative: " + Math.min(x, y));
+        Write w = null;
+        lock(x, y);
+        try {
+            // a duplicate changes nothing unless it may lower a weight
+            if (!weighted && keys(x, y).contains(key(x, y))) {
+                return;
+            }
+            w = begin();
+            insertLocked(x, y, weight, w);
+        } finally {
+            unlock(x, y);
+            if (w != null) complete(w);
+        }
+    }
+
+    @Override
+    public void deleteEdge(Pair pair) {
+        deleteEdge(pair.getA(), pair.getB());
+    }
+
+    @Override
+    public void deleteEdge(int x, int y) {
+        if (x < 0 || y < 0) {
+            return;
+        }
+        Write w = null;
+        lock(x, y);
+        try {
+            if (!keys(x, y).contains(key(x, y))) {
+                return;
+            }
+            w = begin();
+            deleteLocked(x, y, w);
+        } finally {
+            unlock(x, y);
+            if (w != null) complete(w);
+        }
+    }
+
+    // touches the rows of every neighbor, so it takes all stripes
+    @Override
+    public void deleteNode(int x) {
+        Write w = null;
+        lockAll();
+        try {
+            if (!containsNode(x)) {
+                return;
+            }
+            w = begin();
+            removeNodeLocked(x, w);
+        } finally {
+            unlockAll();
+            if (w != null) complete(w);
+        }
+    }
+
+    // merges p.getB() into p.getA(), as Graph.contrEdge does
+    @Override
+    public void contrEdge(Pair p) {
+        int x = p.getA();
+        int y = p.getB();
+        Write w = null;
+        lockAll();
+        try {
+            if (x == y || !latest.areAdjacent(x, y) && !latest.areAdjacent(y, x))
+                throw new RuntimeException("No edge between " + x + " and " + y);
+            w = begin();
+            Row outRow = row(out, y, LATEST);
+            Row inRow = oriented ? row(in, y, LATEST) : null;
+            removeNodeLocked(y, w);
+            for (int i = 0; i < outRow.size; i++) {
+                int z = outRow.targets[i];
+                if (z != x) insertLocked(x, z == y ? x : z, weighted ? outRow.weights[i] : 0, w);
+            }
+            if (oriented) {
+                for (int i = 0; i < inRow.size; i++) {
+                    int z = inRow.targets[i];
+                    if (z != x && z != y) insertLocked(z, x, weighted ? inRow.weights[i] : 0, w);
+                }
+            }
+        } finally {
+            unlockAll();
+            if (w != null) complete(w);
+        }
+    }
+
+    // the file starts with an "n m" header
+    @Override
+    public void loadFromFile(File file) {
+        loadFromFile(file, true);
+    }
+
+    public void loadFromFile(File file, boolean header) {
+        try {
+            EdgeList list = EdgeListLoader.load(file, weighted, header);
+            for (int i = 0; i < list.size(); i++) {
+                insertEdge(list.getSources()[i], list.getTargets()[i], weighted ? list.getWeights()[i] : 0);
+            }
+        } catch (NoSuchFileException e) {
+            e.printStackTrace();
+            System.out.println("File not found");
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.out.println("Cannot read file");
+        }
+    }
+
+    // -------- reads see the latest rows; traversals run on a snapshot
+
+    @Override
+    public void saveBinary(File file) throws IOException {
+        try (Snapshot snapshot = snapshot()) {
+            snapshot.saveBinary(file);
+        }
+    }
+
+    @Override
+    public Set<Integer> listNodes() {
+        return latest.listNodes();
+    }
+
+    @Override
+    public boolean containsNode(int x) {
+        return latest.containsNode(x);
+    }
+
+    @Override
+    public List<Pair> listEdges() {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.listEdges();
+        }
+    }
+
+    @Override
+    public List<Integer> listNeighbors(int x) {
+        return latest.listNeighbors(x);
+    }
+
+    @Override
+    public List<Pair> listNeighborsWithWeight(int x) {
+        return latest.listNeighborsWithWeight(x);
+    }
+
+    @Override
+    public void forEachNeighbor(int x, IntConsumer action) {
+        latest.forEachNeighbor(x, action);
+    }
+
+    @Override
+    public void forEachNeighbor(int x, NeighborConsumer action) {
+        latest.forEachNeighbor(x, action);
+    }
+
+    @Override
+    public void forEachInNeighbor(int x, NeighborConsumer action) {
+        latest.forEachInNeighbor(x, action);
+    }
+
+    @Override
+    public boolean anyNeighbor(int x, IntPredicate test) {
+        return latest.anyNeighbor(x, test);
+    }
+
+    @Override
+    public int numberOfNodes() {
+        return (int) nodes.sum();
+    }
+
+    @Override
+    public int bound() {
+        return bound.get();
+    }
+
+    @Override
+    public int numberOfEdges() {
+        return (int) edges.sum();
+    }
+
+    // the last version up to which every write that changes the graph is complete
+    @Override
+    public long version() {
+        return watermark.version;
+    }
+
+    @Override
+    public boolean isOriented() {
+        return oriented;
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    @Override
+    public int grad(int x) {
+        return latest.grad(x);
+    }
+
+    @Override
+    public boolean areAdjacent(int x, int y) {
+        return latest.areAdjacent(x, y);
+    }
+
+    @Override
+    public List<Integer> bfs(int s) {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.bfs(s);
+        }
+    }
+
+    @Override
+    public List<Integer> dfs(int s) {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.dfs(s);
+        }
+    }
+
+    @Override
+    public List<Collection<Integer>> algorithmA() {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.algorithmA();
+        }
+    }
+
+    @Override
+    public List<Collection<Integer>> algorithmRA() {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.algorithmRA();
+        }
+    }
+
+    @Override
+    public List<Collection<Integer>> algorithmS() {
+        try (Snapshot snapshot = snapshot()) {
+            return snapshot.algorithmS();
+        }
+    }
+
+    // holds the graph but not the Snapshot, so that the Cleaner can still run
+    private static class Unpin implements Runnable {
+        private final ConcurrentGraph graph;
+        private final long version;
+
+        private Unpin(ConcurrentGraph graph, long version) {
+            this.graph = graph;
+            this.version = version;
+        }
+
+        @Override
+        public void run() {
+            graph.pinned.computeIfPresent(version, (v, count) -> count == 1 ? null : count - 1);
+            // only the oldest pin holds history back
+            Map.Entry<Long, Integer> oldest = graph.pinned.firstEntry();
+            if (graph.history && (oldest == null || oldest.getKey() > version)) {
+                graph.trimHistory();
+            }
+        }
+    }
+
+    /**
+     * The graph as of one version, safe to read from any number of threads while the
+     * writers go on. Every write method throws.
+     */
+    public static class Snapshot implements IGraph, AutoCloseable {
+        private final ConcurrentGraph graph;
+        private final long version;
+        private final int numberOfNodes;
+        private final int numberOfEdges;
+        private final int bound;
+        private final Cleaner.Cleanable unpin;
+
+        private Snapshot(ConcurrentGraph graph, long version, int numberOfNodes, int numberOfEdges, int bound) {
+            this.graph = graph;
+            this.version = version;
+            this.numberOfNodes = numberOfNodes;
+            this.numberOfEdges = numberOfEdges;
+            this.bound = bound;
+            this.unpin = version == LATEST ? null : CLEANER.register(this, new Unpin(graph, version));
+        }
+
+        // the pinned version; the latest view reports the graph's current one
+        @Override
+        public long version() {
+            return version == LATEST ? graph.version() : version;
+        }
+
+        @Override
+        public void close() {
+            if (unpin != null) unpin.clean();
+        }
+
+        private Row row(int x) {
+            return ConcurrentGraph.row(graph.out, x, version);
+        }
+
+        @Override
+        public void loadFromFile(File file) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void saveBinary(File file) throws IOException {
+            CsrGraph.from(this).saveBinary(file);
+        }
+
+        @Override
+        public Set<Integer> listNodes() {
+            Set<Integer> result = new HashSet<>();
+            for (int x = 0; x < bound(); x++) {
+                if (containsNode(x)) result.add(x);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean containsNode(int x) {
+            return row(x) != null;
+        }
+
+        @Override
+        public List<Pair> listEdges() {
+            List<Pair> result = new ArrayList<>();
+            for (int x = 0; x < bound(); x++) {
+                Row row = row(x);
+                for (int i = 0; row != null && i < row.size; i++) {
+                    if (graph.oriented || x < row.targets[i]) {
+                        result.add(new Pair(x, row.targets[i]));
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Integer> listNeighbors(int x) {
+            List<Integer> result = new ArrayList<>();
+            forEachNeighbor(x, (IntConsumer) result::add);
+            return result;
+        }
+
+        @Override
+        public List<Pair> listNeighborsWithWeight(int x) {
+            if (!graph.weighted)
+                throw new RuntimeException("Graph not weighted");
+            List<Pair> result = new ArrayList<>();
+            forEachNeighbor(x, (y, w) -> result.add(new Pair(y, w)));
+            return result;
+        }
+
+        @Override
+        public void forEachNeighbor(int x, IntConsumer action) {
+            Row row = row(x);
+            for (int i = 0; row != null && i < row.size; i++) {
+                action.accept(row.targets[i]);
+            }
+        }
+
+        @Override
+        public void forEachNeighbor(int x, NeighborConsumer action) {
+            Row row = row(x);
+            for (int i = 0; row != null && i < row.size; i++) {
+                action.accept(row.targets[i], graph.weighted ? row.weights[i] : 0);
+            }
+        }
+
+        @Override
+        public void forEachInNeighbor(int x, NeighborConsumer action) {
+            Row row = ConcurrentGraph.row(graph.in, x, version);
+            for (int i = 0; row != null && i < row.size; i++) {
+                action.accept(row.targets[i], graph.weighted ? row.weights[i] : 0);
+            }
+        }
+
+        @Override
+        public boolean anyNeighbor(int x, IntPredicate test) {
+            Row row = row(x);
+            for (int i = 0; row != null && i < row.size; i++) {
+                if (test.test(row.targets[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int numberOfNodes() {
+            return version == LATEST ? graph.numberOfNodes() : numberOfNodes;
+        }
+
+        @Override
+        public int bound() {
+            return version == LATEST ? graph.bound() : bound;
+        }
+
+        @Override
+        public int numberOfEdges() {
+            return version == LATEST ? graph.numberOfEdges() : numberOfEdges;
+        }
+
+        @Override
+        public boolean isOriented() {
+            return graph.oriented;
+        }
+
+        @Override
+        public boolean isWeighted() {
+            return graph.weighted;
+        }
+
+        @Override
+        public int grad(int x) {
+            Row row = row(x);
+            return row == null ? 0 : row.size;
+        }
+
+        @Override
+        public boolean areAdjacent(int x, int y) {
+            Row row = row(x);
+            return row != null && row.indexOf(y) >= 0;
+        }
+
+        @Override
+        public void insertEdge(Pair p) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void insertEdge(int x, int y) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void insertEdge(int x, int y, int weight) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void deleteEdge(Pair p) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void deleteEdge(int x, int y) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void deleteNode(int x) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public void contrEdge(Pair p) {
+            throw new UnsupportedOperationException("Snapshot is read-only");
+        }
+
+        @Override
+        public List<Integer> bfs(int s) {
+            if (!containsNode(s))
+                throw new RuntimeException("Node " + s + " not in graph");
+            List<Integer> result = new ArrayList<>();
+            BitSet visited = new BitSet();
+            visited.set(s);
+            result.add(s);
+            for (int head = 0; head < result.size(); head++) {
+                Row row = row(result.get(head));
+                for (int i = 0; row != null && i < row.size; i++) {
+                    int y = row.targets[i];
+                    if (!visited.get(y)) {
+                        visited.set(y);
+                        result.add(y);
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Integer> dfs(int s) {
+            if (!containsNode(s))
+                throw new RuntimeException("Node " + s + " not in graph");
+            List<Integer> result = new ArrayList<>();
+            BitSet visited = new BitSet();
+            int[] stack = new int[Math.max(numberOfNodes(), 1)];
+            int top = 0;
+            visited.set(s);
+            stack[top++] = s;
+            while (top > 0) {
+                int x = stack[--top];
+                result.add(x);
+                Row row = row(x);
+                for (int i = 0; row != null && i < row.size; i++) {
+                    int y = row.targets[i];
+                    if (!visited.get(y)) {
+                        visited.set(y);
+                        stack[top++] = y;
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<Collection<Integer>> algorithmA() {
+            return ConnectedComponents.components(this, ConnectedComponents.Algorithm.A);
+        }
+
+        @Override
+        public List<Collection<Integer>> algorithmRA() {
+            return ConnectedComponents.components(this, ConnectedComponents.Algorithm.RA);
+        }
+
+        @Override
+        public List<Collection<Integer>> algorithmS() {
+            return ConnectedComponents.components(this, ConnectedComponents.Algorithm.S);
+        }
+    }
+}
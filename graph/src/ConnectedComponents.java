@@ -0,0 +1,259 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Connected components labelled by the smallest node of each component.
+ * <p>
+ * Undirected graphs run one of Liu and Tarjan's concurrent labelling algorithms over
+ * a primitive edge array, with the parent array in an AtomicIntegerArray that is only
+ * ever lowered through compare-and-set. Parents never point above a node, so every
+ * tree root ends up being the smallest node of its component and the labels do not
+ * depend on thread scheduling.
+ * <ul>
+ * <li>A: direct-connect, shortcut, alter until no edge is left;</li>
+ * <li>RA: like A, but only roots are hooked (direct-root-connect);</li>
+ * <li>S: parent-connect followed by shortcuts to a fixed point, on the original edges.</li>
+ * </ul>
+ * Oriented graphs get their strongly connected components from an iterative Tarjan
+ * search instead, since hooking along arcs has no meaning there.
+ */
+public class ConnectedComponents {
+
+    public enum Algorithm { A, RA, S }
+
+    // labels[x] is the smallest node in x's component, or -1 when x is not a node
+    public static int[] labels(IGraph graph, Algorithm algorithm) {
+        if (graph.isOriented()) {
+            return strong(graph);
+        }
+
+        Metrics.Run metrics = Metrics.start("components." + algorithm);
+        if (Metrics.ENABLED) metrics.phase("edges");
+        int bound = graph.bound();
+        AtomicIntegerArray p = new AtomicIntegerArray(bound);
+        IntStream.range(0, bound).parallel().forEach(x -> p.set(x, x));
+        EdgeList edges = undirectedEdges(graph);
+
+        switch (algorithm) {
+            case A -> hookAndAlter(p, edges, false, metrics);
+            case RA -> hookAndAlter(p, edges, true, metrics);
+            case S -> parentConnect(p, edges, metrics);
+        }
+        if (Metrics.ENABLED) metrics.phase("shortcut");
+        while (shortcut(p)) {
+            // compress until every node points at its root
+        }
+
+        if (Metrics.ENABLED) metrics.phase("label");
+        int[] labels = new int[bound];
+        Arrays.fill(labels, -1);
+        for (int x = 0; x < bound; x++) {
+            if (graph.containsNode(x)) {
+                labels[x] = p.get(x);
+            }
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, graph.numberOfNodes());
+            metrics.finish();
+        }
+        return labels;
+    }
+
+    public static List<Collection<Integer>> components(IGraph graph, Algorithm algorithm) {
+        return toComponents(labels(graph, algorithm));
+    }
+
+    // groups nodes by label, components ordered by their smallest node
+    public static List<Collection<Integer>> toComponents(int[] labels) {
+        List<Collection<Integer>> result = new ArrayList<>();
+        int[] index = new int[labels.length];
+        for (int x = 0; x < labels.length; x++) {
+            if (labels[x] == x) {
+                index[x] = result.size();
+                result.add(new ArrayList<>());
+            }
+            if (labels[x] >= 0) {
+                result.get(index[labels[x]]).add(x);
+            }
+        }
+        return result;
+    }
+
+    private static EdgeList undirectedEdges(IGraph graph) {
+        EdgeList edges = new EdgeList(graph.numberOfEdges(), false);
+        for (int x = 0; x < graph.bound(); x++) {
+            int source = x;
+            graph.forEachNeighbor(x, y -> {
+                if (source < y) {
+                    edges.add(source, y, 0);
+                }
+            });
+        }
+        return edges;
+    }
+
+    private static boolean casMin(AtomicIntegerArray p, int i, int value) {
+        int current = p.get(i);
+        while (current > value) {
+            int witness = p.compareAndExchange(i, current, value);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    // one pass of p(v) = p(p(v)); true if anything moved
+    private static boolean shortcut(AtomicIntegerArray p) {
+        return IntStream.range(0, p.length()).parallel().map(v -> {
+            int parent = p.get(v);
+            int grandparent = p.get(parent);
+            if (grandparent != parent) {
+                p.set(v, grandparent);
+                return 1;
+            }
+            return 0;
+        }).sum() > 0;
+    }
+
+    private static void hookAndAlter(AtomicIntegerArray p, EdgeList edges, boolean rootsOnly, Metrics.Run metrics) {
+        int[] v = edges.getSources();
+        int[] w = edges.getTargets();
+        int m = edges.size();
+
+        while (m > 0) {
+            int size = m;
+            if (Metrics.ENABLED) {
+                metrics.add(Metrics.Counter.ITERATIONS, 1);
+                metrics.add(Metrics.Counter.EDGES_SCANNED, size);
+                metrics.phase("connect");
+            }
+            // connect: the larger endpoint takes the smaller one as parent
+            IntStream.range(0, size).parallel().forEach(i -> {
+                int high = Math.max(v[i], w[i]);
+                int low = Math.min(v[i], w[i]);
+                if (!rootsOnly || p.get(high) == high) {
+                    casMin(p, high, low);
+                }
+            });
+            if (Metrics.ENABLED) metrics.phase("shortcut");
+            shortcut(p);
+            if (Metrics.ENABLED) metrics.phase("alter");
+            // alter: replace every edge by the edge between the endpoints' parents, dropping loops
+            IntStream.range(0, size).parallel().forEach(i -> {
+                v[i] = p.get(v[i]);
+                w[i] = p.get(w[i]);
+            });
+            m = 0;
+            for (int i = 0; i < size; i++) {
+                if (v[i] != w[i]) {
+                    v[m] = v[i];
+                    w[m++] = w[i];
+                }
+            }
+        }
+    }
+
+    private static void parentConnect(AtomicIntegerArray p, EdgeList edges, Metrics.Run metrics) {
+        int[] v = edges.getSources();
+        int[] w = edges.getTargets();
+        boolean changed;
+        do {
+            if (Metrics.ENABLED) {
+                metrics.add(Metrics.Counter.ITERATIONS, 1);
+                metrics.add(Metrics.Counter.EDGES_SCANNED, edges.size());
+                metrics.phase("connect");
+            }
+            changed = IntStream.range(0, edges.size()).parallel().map(i -> {
+                int pv = p.get(v[i]);
+                int pw = p.get(w[i]);
+                if (pv == pw) {
+                    return 0;
+                }
+                return casMin(p, Math.max(pv, pw), Math.min(pv, pw)) ? 1 : 0;
+            }).sum() > 0;
+            if (Metrics.ENABLED) metrics.phase("shortcut");
+            while (shortcut(p)) {
+                // flatten before the next round of hooks
+            }
+        } while (changed);
+    }
+
+    // iterative Tarjan; each strongly connected component is labelled by its smallest node
+    private static int[] strong(IGraph graph) {
+        Metrics.Run metrics = Metrics.start("components.strong");
+        AbstractCsrGraph csr = graph instanceof AbstractCsrGraph ? (AbstractCsrGraph) graph : CsrGraph.from(graph);
+        int bound = csr.bound();
+        int[] labels = new int[bound];
+        int[] index = new int[bound];
+        int[] low = new int[bound];
+        int[] cursor = new int[bound];
+        boolean[] onStack = new boolean[bound];
+        int[] stack = new int[bound];
+        int[] calls = new int[bound];
+        Arrays.fill(labels, -1);
+        Arrays.fill(index, -1);
+        BitSet nodes = csr.nodes();
+        int counter = 0;
+        int top = 0;
+
+        for (int root = nodes.nextSetBit(0); root >= 0; root = nodes.nextSetBit(root + 1)) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            calls[depth++] = root;
+            index[root] = low[root] = counter++;
+            cursor[root] = csr.offset(root);
+            stack[top++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int v = calls[depth - 1];
+                if (cursor[v] < csr.offset(v + 1)) {
+                    int w = csr.target(cursor[v]++);
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        cursor[w] = csr.offset(w);
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        calls[depth++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (low[v] == index[v]) {
+                    int start = top;
+                    int min = Integer.MAX_VALUE;
+                    do {
+                        min = Math.min(min, stack[--start]);
+                    } while (stack[start] != v);
+                    for (int i = start; i < top; i++) {
+                        onStack[stack[i]] = false;
+                        labels[stack[i]] = min;
+                    }
+                    top = start;
+                }
+                if (depth > 0) {
+                    int u = calls[depth - 1];
+                    low[u] = Math.min(low[u], low[v]);
+                }
+            }
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, counter);
+            metrics.add(Metrics.Counter.EDGES_SCANNED, csr.numberOfArcs());
+            metrics.finish();
+        }
+        return labels;
+    }
+}
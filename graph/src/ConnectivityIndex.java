@@ -0,0 +1,161 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free union-find over node ids, safe to update and query from many threads.
+ * Each entry packs (rank + 1) in the high word and the parent in the low word, 0
+ * meaning "not a node yet", so linking a root is a single compare-and-set. Roots are
+ * ordered by (rank, smaller id first) and a node only ever links below a higher root,
+ * which rules out cycles without locks. Finds halve paths as they go.
+ * Edges are only ever added: the index cannot forget a connection.
+ */
+public class ConnectivityIndex {
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final AtomicReferenceArray<AtomicLongArray> segments = new AtomicReferenceArray<>(1 << (31 - SEGMENT_BITS));
+    private final LongAdder components = new LongAdder();
+
+    public static ConnectivityIndex of(IGraph graph) {
+        ConnectivityIndex index = new ConnectivityIndex();
+        for (int x = 0; x < graph.bound(); x++) {
+            if (graph.containsNode(x)) {
+                int source = x;
+                index.addNode(source);
+                graph.forEachNeighbor(source, y -> index.union(source, y));
+            }
+        }
+        return index;
+    }
+
+    private static long entry(int rank, int parent) {
+        return ((long) (rank + 1) << 32) | (parent & 0xffffffffL);
+    }
+
+    private static int parent(long entry) {
+        return (int) entry;
+    }
+
+    private static int rank(long entry) {
+        return (int) (entry >>> 32) - 1;
+    }
+
+    private AtomicLongArray segment(int x) {
+        if (x < 0)
+            throw new RuntimeException("Node ids must be non-negative: " + x);
+        int s = x >>> SEGMENT_BITS;
+        AtomicLongArray segment = segments.get(s);
+        if (segment == null) {
+            segments.compareAndSet(s, null, new AtomicLongArray(SEGMENT_SIZE));
+            segment = segments.get(s);
+        }
+        return segment;
+    }
+
+    private long get(int x) {
+        AtomicLongArray segment = segments.get(x >>> SEGMENT_BITS);
+        return segment == null ? 0 : segment.get(x & SEGMENT_MASK);
+    }
+
+    private boolean cas(int x, long expected, long value) {
+        return segment(x).compareAndSet(x & SEGMENT_MASK, expected, value);
+    }
+
+    // returns true if x was not known before
+    public boolean addNode(int x) {
+        if (cas(x, 0, entry(0, x))) {
+            components.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean containsNode(int x) {
+        return x >= 0 && get(x) != 0;
+    }
+
+    // the current root of x, or -1 when x is not a node
+    public int find(int x) {
+        if (!containsNode(x)) {
+            return -1;
+        }
+        while (true) {
+            long e = get(x);
+            int p = parent(e);
+            if (p == x) {
+                return x;
+            }
+            int grandparent = parent(get(p));
+            if (grandparent != p) {
+                cas(x, e, entry(rank(e), grandparent));
+            }
+            x = p;
+        }
+    }
+
+    // merges the components of x and y, adding them as nodes if needed; true if they were apart
+    public boolean union(int x, int y) {
+        addNode(x);
+        addNode(y);
+        while (true) {
+            int rx = find(x);
+            int ry = find(y);
+            if (rx == ry) {
+                return false;
+            }
+            long ex = get(rx);
+            long ey = get(ry);
+            if (parent(ex) != rx || parent(ey) != ry) {
+                continue;
+            }
+            int rankX = rank(ex);
+            int rankY = rank(ey);
+            if (rankX > rankY || rankX == rankY && rx < ry) {
+                int swap = rx;
+                rx = ry;
+                ry = swap;
+                long e = ex;
+                ex = ey;
+                ey = e;
+                rankX = rank(ex);
+                rankY = rank(ey);
+            }
+            // rx is the lower root and goes below ry
+            if (cas(rx, ex, entry(rankX, ry))) {
+                if (rankX == rankY) {
+                    cas(ry, ey, entry(rankY + 1, ry));
+                }
+                components.decrement();
+                return true;
+            }
+        }
+    }
+
+    public boolean connected(int x, int y) {
+        if (!containsNode(x) || !containsNode(y)) {
+            return false;
+        }
+        while (true) {
+            int rx = find(x);
+            int ry = find(y);
+            if (rx == ry) {
+                return true;
+            }
+            // rx may have been linked meanwhile; only a root that is still a root proves they are apart
+            if (parent(get(rx)) == rx) {
+                return false;
+            }
+        }
+    }
+
+    // the representative of x's component, or -1 when x is not a node; changes as components merge
+    public int componentOf(int x) {
+        return find(x);
+    }
+
+    public int componentCount() {
+        return (int) components.sum();
+    }
+}
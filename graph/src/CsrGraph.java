@@ -0,0 +1,191 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Immutable graph in compressed sparse row form held in heap arrays. The neighbors
+ * of node x are targets[offsets[x]] .. targets[offsets[x + 1] - 1], sorted ascending,
+ * with the matching weights at the same positions when the graph is weighted.
+ * Node ids index the arrays directly, so ids must be non-negative.
+ */
+public class CsrGraph extends AbstractCsrGraph {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    private CsrGraph(int[] offsets, int[] targets, int[] weights, BitSet nodes,
+                     int numberOfEdges, boolean oriented, boolean weighted) {
+        super(nodes, numberOfEdges, oriented, weighted);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public static CsrGraph from(IGraph graph) {
+        Set<Integer> nodeList = graph.listNodes();
+        BitSet nodes = new BitSet();
+        int bound = 0;
+        for (int x : nodeList) {
+            nodes.set(x);
+            bound = Math.max(bound, x + 1);
+        }
+
+        int[] offsets = new int[bound + 1];
+        for (int x : nodeList) {
+            offsets[x + 1] = graph.grad(x);
+        }
+        for (int x = 0; x < bound; x++) {
+            offsets[x + 1] += offsets[x];
+        }
+
+        int[] targets = new int[offsets[bound]];
+        int[] weights = graph.isWeighted() ? new int[offsets[bound]] : null;
+        int[] cursor = Arrays.copyOf(offsets, bound);
+        for (int x : nodeList) {
+            graph.forEachNeighbor(x, (y, w) -> {
+                int i = cursor[x]++;
+                targets[i] = y;
+                if (weights != null) weights[i] = w;
+            });
+        }
+        return build(offsets, targets, weights, nodes, graph.isOriented(), graph.isWeighted());
+    }
+
+    // the graph with every arc turned around; an undirected graph is its own reverse
+    public static CsrGraph reverse(IGraph graph) {
+        if (!graph.isOriented()) {
+            return from(graph);
+        }
+        EdgeList edges = new EdgeList(graph.numberOfEdges(), graph.isWeighted());
+        for (int x : graph.listNodes()) {
+            graph.forEachNeighbor(x, (y, w) -> edges.add(y, x, w));
+        }
+        return fromEdges(edges.getSources(), edges.getTargets(), edges.getWeights(), edges.size(), true, graph.isWeighted());
+    }
+
+    // header: the file starts with an "n m" line
+    public static CsrGraph fromFile(File file, boolean oriented, boolean weighted, boolean header) {
+        return fromFile(file, oriented, weighted, header, null);
+    }
+
+    // ids in the file are interned into the dictionary, which then translates results back
+    public static CsrGraph fromFile(File file, boolean oriented, boolean weighted, boolean header, IdDictionary dictionary) {
+        try {
+            EdgeList edges = EdgeListLoader.load(file, weighted, header, dictionary);
+            return fromEdges(edges.getSources(), edges.getTargets(), edges.getWeights(), edges.size(), oriented, weighted);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read file " + file, e);
+        }
+    }
+
+    public static CsrGraph fromEdges(int[] src, int[] dst, int[] w, int m, boolean oriented, boolean weighted) {
+        if (weighted && w == null)
+            throw new RuntimeException("Weight omitted!");
+
+        BitSet nodes = new BitSet();
+        int bound = 0;
+        for (int i = 0; i < m; i++) {
+            bound = Math.max(bound, Math.max(src[i], dst[i]) + 1);
+        }
+
+        // count degrees
+        int[] offsets = new int[bound + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[src[i] + 1]++;
+            if (!oriented && src[i] != dst[i]) {
+                offsets[dst[i] + 1]++;
+            }
+            nodes.set(src[i]);
+            nodes.set(dst[i]);
+        }
+        for (int x = 0; x < bound; x++) {
+            offsets[x + 1] += offsets[x];
+        }
+
+        // scatter
+        int[] cursor = Arrays.copyOf(offsets, bound);
+        int[] targets = new int[offsets[bound]];
+        int[] weights = weighted ? new int[offsets[bound]] : null;
+        for (int i = 0; i < m; i++) {
+            int x = src[i];
+            int y = dst[i];
+            int j = cursor[x]++;
+            targets[j] = y;
+            if (weighted) weights[j] = w[i];
+            if (!oriented && x != y) {
+                j = cursor[y]++;
+                targets[j] = x;
+                if (weighted) weights[j] = w[i];
+            }
+        }
+        return build(offsets, targets, weights, nodes, oriented, weighted);
+    }
+
+    // sorts every row by target and drops duplicate targets, keeping the smallest weight
+    private static CsrGraph build(int[] offsets, int[] targets, int[] weights, BitSet nodes,
+                                  boolean oriented, boolean weighted) {
+        int bound = offsets.length - 1;
+        long[] scratch = null;
+        int write = 0;
+        int loops = 0;
+
+        for (int x = 0; x < bound; x++) {
+            int from = offsets[x];
+            int to = offsets[x + 1];
+            offsets[x] = write;
+
+            if (weights == null) {
+                Arrays.sort(targets, from, to);
+                for (int i = from; i < to; i++) {
+                    if (i == from || targets[i] != targets[i - 1]) {
+                        if (targets[i] == x) loops++;
+                        targets[write++] = targets[i];
+                    }
+                }
+            } else {
+                if (scratch == null || scratch.length < to - from) {
+                    scratch = new long[Math.max(to - from, 16)];
+                }
+                for (int i = from; i < to; i++) {
+                    scratch[i - from] = ((long) targets[i] << 32) | ((weights[i] & 0xffffffffL) ^ 0x80000000L);
+                }
+                Arrays.sort(scratch, 0, to - from);
+                for (int i = 0; i < to - from; i++) {
+                    int y = (int) (scratch[i] >>> 32);
+                    if (i == 0 || y != (int) (scratch[i - 1] >>> 32)) {
+                        if (y == x) loops++;
+                        targets[write] = y;
+                        weights[write++] = (int) scratch[i] ^ 0x80000000;
+                    }
+                }
+            }
+        }
+        offsets[bound] = write;
+
+        if (write < targets.length) {
+            targets = Arrays.copyOf(targets, write);
+            if (weights != null) weights = Arrays.copyOf(weights, write);
+        }
+        int edges = oriented ? write : (write - loops) / 2 + loops;
+        return new CsrGraph(offsets, targets, weights, nodes, edges, oriented, weighted);
+    }
+
+    @Override
+    public int bound() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public int offset(int x) {
+        return offsets[x];
+    }
+
+    @Override
+    public int target(int i) {
+        return targets[i];
+    }
+
+    @Override
+    public int weight(int i) {
+        return weights == null ? 0 : weights[i];
+    }
+}
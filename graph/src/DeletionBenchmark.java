@@ -0,0 +1,58 @@
+import java.util.SplittableRandom;
+
+/**
+ * Edge and node deletion throughput on a random undirected graph:
+ * java DeletionBenchmark [nodes] [edges]
+ */
+public class DeletionBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 4_000_000;
+        SplittableRandom random = new SplittableRandom(42);
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        for (int i = 0; i < m; i++) {
+            src[i] = random.nextInt(n);
+            dst[i] = random.nextInt(n);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            // the first round only warms up the JIT
+            Graph graph = build(src, dst);
+            int edges = graph.numberOfEdges();
+            long start = System.nanoTime();
+            for (int i = m - 1; i >= 0; i--) {
+                graph.deleteEdge(src[i], dst[i]);
+            }
+            long edgeTime = System.nanoTime() - start;
+            if (graph.numberOfEdges() != 0)
+                throw new RuntimeException("Edges left: " + graph.numberOfEdges());
+
+            start = System.nanoTime();
+            graph.compact();
+            long compactTime = System.nanoTime() - start;
+
+            graph = build(src, dst);
+            start = System.nanoTime();
+            for (int x = 0; x < n; x++) {
+                graph.deleteNode(x);
+            }
+            long nodeTime = System.nanoTime() - start;
+
+            if (round == 1) {
+                System.out.printf("deleteEdge  %d edges in %.0f ms, %.2f M ops/s%n", edges, edgeTime / 1e6, edges * 1e3 / edgeTime);
+                System.out.printf("deleteNode  %d nodes in %.0f ms, %.2f M ops/s%n", n, nodeTime / 1e6, n * 1e3 / nodeTime);
+                System.out.printf("compact     %.0f ms%n", compactTime / 1e6);
+            }
+        }
+    }
+
+    private static Graph build(int[] src, int[] dst) {
+        Graph graph = new Graph();
+        for (int i = 0; i < src.length; i++) {
+            graph.insertEdge(src[i], dst[i]);
+        }
+        return graph;
+    }
+}
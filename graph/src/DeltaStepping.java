@@ -0,0 +1,290 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single-source shortest paths on non-negative weights (Meyer and Sanders,
+ * "Delta-stepping"). Nodes wait in buckets of width delta by tentative distance. The
+ * lowest non-empty bucket is settled in rounds: its nodes relax their light edges
+ * (weight at most delta) in parallel, re-filling the bucket until it stays empty, and
+ * then every node it settled relaxes its heavy edges once.
+ * <p>
+ * Each node's distance and predecessor share one long (distance in the high half),
+ * so a relaxation is a single compare-and-exchange that only ever lowers the
+ * distance and the pair can never tear. Distances are ints, like Graph.disjktra
+ * reports them; a path longer than Integer.MAX_VALUE - 1 is an error. The distances
+ * equal Dijkstra's; among equally short paths the predecessors may differ.
+ */
+public class DeltaStepping {
+    private static final int MIN_CHUNK = 256;
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private static class Buffer {
+        private int[] nodes = new int[64];
+        private int size;
+
+        private void add(int x) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size++] = x;
+        }
+    }
+
+    /*
+     * Buckets by index in a ring that spans every index from the current bucket to the
+     * furthest pending one; with non-negative weights nothing is ever added behind the
+     * current bucket, and the ring only has to cover max weight / delta indexes.
+     */
+    private static class Buckets {
+        private Buffer[] ring = new Buffer[64];
+        private int current;
+        private int pending;
+
+        private Buffer get(int index) {
+            while (index - current >= ring.length) {
+                Buffer[] larger = new Buffer[ring.length * 2];
+                for (int i = current; i < current + ring.length; i++) {
+                    larger[i & (larger.length - 1)] = ring[i & (ring.length - 1)];
+                }
+                ring = larger;
+            }
+            int slot = index & (ring.length - 1);
+            if (ring[slot] == null) {
+                ring[slot] = new Buffer();
+                pending++;
+            }
+            return ring[slot];
+        }
+
+        // removes the lowest non-empty bucket and makes it current, or returns null
+        private Buffer next() {
+            if (pending == 0) {
+                return null;
+            }
+            while (ring[current & (ring.length - 1)] == null) {
+                current++;
+            }
+            int slot = current & (ring.length - 1);
+            Buffer bucket = ring[slot];
+            ring[slot] = null;
+            pending--;
+            return bucket;
+        }
+    }
+
+    // the relaxations of one chunk of a round, from one thread
+    private static class Work implements NeighborConsumer {
+        private final AtomicLongArray state;
+        private final int delta;
+        private final boolean light;
+        private final Buffer updated = new Buffer();
+        private int current;
+        private long distance;
+        private long scanned;
+        private long relaxed;
+
+        private Work(AtomicLongArray state, int delta, boolean light) {
+            this.state = state;
+            this.delta = delta;
+            this.light = light;
+        }
+
+        @Override
+        public void accept(int y, int weight) {
+            if (weight < 0)
+                throw new RuntimeException("Negative weight on edge " + current + " " + y);
+            if (Metrics.ENABLED) scanned++;
+            if ((weight <= delta) != light) {
+                return;
+            }
+            long newDist = distance + weight;
+            if (newDist >= INFINITE)
+                throw new RuntimeException("Distance to " + y + " overflows an int");
+            long next = pack((int) newDist, current);
+            long old = state.get(y);
+            while (newDist < distance(old)) {
+                long witness = state.compareAndExchange(y, old, next);
+                if (witness == old) {
+                    if (Metrics.ENABLED) relaxed++;
+                    updated.add(y);
+                    return;
+                }
+                old = witness;
+            }
+        }
+    }
+
+    public static ShortestPathTree run(IGraph graph, int source) {
+        return run(graph, source, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    public static ShortestPathTree run(IGraph graph, int source, int delta) {
+        return run(graph, source, delta, ForkJoinPool.commonPool());
+    }
+
+    public static ShortestPathTree run(IGraph graph, int source, int delta, ForkJoinPool pool) {
+        if (!graph.isWeighted())
+            throw new RuntimeException("Graph not weighted");
+        int bound = graph.bound();
+        if (source < 0 || source >= bound)
+            throw new RuntimeException("Node " + source + " not in graph");
+        if (delta < 1)
+            throw new RuntimeException("Delta must be positive");
+
+        Metrics.Run metrics = Metrics.start("deltaStepping");
+        AtomicLongArray state = new AtomicLongArray(bound);
+        long unreached = pack(INFINITE, -1);
+        for (int x = 0; x < bound; x++) {
+            state.set(x, unreached);
+        }
+        state.set(source, pack(0, -1));
+
+        Buckets buckets = new Buckets();
+        buckets.get(0).add(source);
+        // round in which a node last joined a frontier, bucket in which it was settled
+        int[] queued = new int[bound];
+        int[] settledIn = new int[bound];
+        int round = 0;
+        long settledCount = 0;
+        long scanned = 0;
+        long relaxed = 0;
+
+        for (Buffer bucket = buckets.next(); bucket != null; bucket = buckets.next()) {
+            int b = buckets.current;
+
+            // entries whose node has since moved to a lower bucket are stale
+            round++;
+            Buffer frontier = new Buffer();
+            for (int i = 0; i < bucket.size; i++) {
+                int x = bucket.nodes[i];
+                if (distance(state.get(x)) / delta == b && queued[x] != round) {
+                    queued[x] = round;
+                    frontier.add(x);
+                }
+            }
+
+            Buffer settled = new Buffer();
+            if (Metrics.ENABLED) metrics.phase("light");
+            while (frontier.size > 0) {
+                if (Metrics.ENABLED) metrics.frontier(frontier.size);
+                for (int i = 0; i < frontier.size; i++) {
+                    int x = frontier.nodes[i];
+                    if (settledIn[x] != b + 1) {
+                        settledIn[x] = b + 1;
+                        settled.add(x);
+                    }
+                }
+                List<Work> works = relax(graph, state, delta, true, frontier, pool);
+                round++;
+                frontier = new Buffer();
+                for (Work work : works) {
+                    scanned += work.scanned;
+                    relaxed += work.relaxed;
+                    for (int i = 0; i < work.updated.size; i++) {
+                        int y = work.updated.nodes[i];
+                        int c = distance(state.get(y)) / delta;
+                        if (c != b) {
+                            buckets.get(c).add(y);
+                        } else if (queued[y] != round) {
+                            queued[y] = round;
+                            frontier.add(y);
+                        }
+                    }
+                }
+            }
+
+            // the bucket is final now; heavy edges can only reach later buckets
+            if (Metrics.ENABLED) metrics.phase("heavy");
+            settledCount += settled.size;
+            for (Work work : relax(graph, state, delta, false, settled, pool)) {
+                scanned += work.scanned;
+                relaxed += work.relaxed;
+                for (int i = 0; i < work.updated.size; i++) {
+                    int y = work.updated.nodes[i];
+                    buckets.get(distance(state.get(y)) / delta).add(y);
+                }
+            }
+        }
+
+        long[] distances = new long[bound];
+        int[] predecessors = new int[bound];
+        for (int x = 0; x < bound; x++) {
+            long s = state.get(x);
+            distances[x] = distance(s) == INFINITE ? ShortestPathTree.UNREACHABLE : distance(s);
+            predecessors[x] = (int) s;
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, settledCount);
+            metrics.add(Metrics.Counter.EDGES_SCANNED, scanned);
+            metrics.add(Metrics.Counter.EDGES_RELAXED, relaxed);
+            metrics.add(Metrics.Counter.ITERATIONS, round);
+            metrics.finish();
+        }
+        return new ShortestPathTree(source, distances, predecessors);
+    }
+
+    // relaxes the light or heavy edges of nodes in chunks on the pool
+    private static List<Work> relax(IGraph graph, AtomicLongArray state, int delta, boolean light,
+                                    Buffer nodes, ForkJoinPool pool) {
+        int chunk = Math.max(MIN_CHUNK, nodes.size / (pool.getParallelism() * 4) + 1);
+        if (nodes.size <= chunk) {
+            return List.of(relax(graph, state, delta, light, nodes.nodes, 0, nodes.size));
+        }
+        List<ForkJoinTask<Work>> tasks = new ArrayList<>();
+        for (int from = 0; from < nodes.size; from += chunk) {
+            int start = from;
+            int end = Math.min(from + chunk, nodes.size);
+            tasks.add(pool.submit(() -> relax(graph, state, delta, light, nodes.nodes, start, end)));
+        }
+        List<Work> works = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Work> task : tasks) {
+            works.add(task.join());
+        }
+        return works;
+    }
+
+    private static Work relax(IGraph graph, AtomicLongArray state, int delta, boolean light,
+                              int[] nodes, int from, int to) {
+        Work work = new Work(state, delta, light);
+        for (int i = from; i < to; i++) {
+            int x = nodes[i];
+            work.current = x;
+            work.distance = distance(state.get(x));
+            graph.forEachNeighbor(x, work);
+        }
+        return work;
+    }
+
+    /*
+     * Largest weight over average degree, sampled from up to 4096 rows: Meyer and
+     * Sanders pick delta = Theta(1 / d) for weights in [0, 1], which keeps the number
+     * of light-edge rounds per bucket small without making buckets too crowded.
+     */
+    public static int defaultDelta(IGraph graph) {
+        int bound = graph.bound();
+        int step = Math.max(1, bound / 4096);
+        long[] sample = new long[3];
+        for (int x = 0; x < bound; x += step) {
+            if (graph.containsNode(x)) {
+                sample[0]++;
+                graph.forEachNeighbor(x, (y, w) -> {
+                    sample[1]++;
+                    sample[2] = Math.max(sample[2], w);
+                });
+            }
+        }
+        return (int) Math.max(1, sample[2] * sample[0] / Math.max(1, sample[1]));
+    }
+
+    private static long pack(int distance, int predecessor) {
+        return (long) distance << 32 | (predecessor & 0xffffffffL);
+    }
+
+    private static int distance(long state) {
+        return (int) (state >>> 32);
+    }
+}
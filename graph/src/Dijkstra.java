@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+/**
+ * Single-source shortest paths on non-negative weights with an indexed heap, so every
+ * relaxation is a real decrease-key instead of a remove and re-insert.
+ */
+public class Dijkstra {
+    private static class Search implements NeighborConsumer {
+        private final long[] distances;
+        private final int[] predecessors;
+        private final boolean[] settled;
+        private final IndexedHeap heap;
+        private int current;
+        private long scanned;
+        private long relaxed;
+        private long decreases;
+
+        private Search(IGraph graph) {
+            int bound = graph.bound();
+            this.distances = new long[bound];
+            this.predecessors = new int[bound];
+            this.settled = new boolean[bound];
+            this.heap = new IndexedHeap(bound);
+            Arrays.fill(distances, ShortestPathTree.UNREACHABLE);
+            Arrays.fill(predecessors, -1);
+        }
+
+        @Override
+        public void accept(int y, int weight) {
+            if (weight < 0)
+                throw new RuntimeException("Negative weight on edge " + current + " " + y);
+            if (Metrics.ENABLED) scanned++;
+            if (settled[y]) {
+                return;
+            }
+            long newDist = distances[current] + weight;
+            if (newDist < distances[y]) {
+                if (Metrics.ENABLED) relaxed++;
+                distances[y] = newDist;
+                predecessors[y] = current;
+                if (heap.contains(y)) {
+                    if (Metrics.ENABLED) decreases++;
+                    heap.decreaseKey(y, newDist);
+                } else {
+                    heap.insert(y, newDist);
+                }
+            }
+        }
+    }
+
+    public static ShortestPathTree run(IGraph graph, int source) {
+        return run(graph, source, -1);
+    }
+
+    // stops as soon as target is settled; distances of nodes not yet settled are upper bounds
+    public static ShortestPathTree run(IGraph graph, int source, int target) {
+        if (!graph.isWeighted())
+            throw new RuntimeException("Graph not weighted");
+        if (source < 0 || source >= graph.bound())
+            throw new RuntimeException("Node " + source + " not in graph");
+
+        Metrics.Run metrics = Metrics.start("dijkstra");
+        Search search = new Search(graph);
+        search.distances[source] = 0;
+        search.heap.insert(source, 0);
+        long pops = 0;
+
+        while (!search.heap.isEmpty()) {
+            int x = search.heap.poll();
+            if (Metrics.ENABLED) pops++;
+            search.settled[x] = true;
+            if (x == target) {
+                break;
+            }
+            search.current = x;
+            graph.forEachNeighbor(x, search);
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, pops);
+            metrics.add(Metrics.Counter.EDGES_SCANNED, search.scanned);
+            metrics.add(Metrics.Counter.EDGES_RELAXED, search.relaxed);
+            metrics.add(Metrics.Counter.HEAP_PUSHES, 1 + search.relaxed - search.decreases);
+            metrics.add(Metrics.Counter.HEAP_POPS, pops);
+            metrics.add(Metrics.Counter.HEAP_DECREASES, search.decreases);
+            metrics.finish();
+        }
+        return new ShortestPathTree(source, search.distances, search.predecessors);
+    }
+}
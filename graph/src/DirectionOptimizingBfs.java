@@ -0,0 +1,180 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * BFS that switches between top-down and bottom-up frontier expansion (Beamer et al.).
+ * Top-down pushes from every frontier node to its neighbors. Bottom-up lets every
+ * unvisited node look for a parent among its in-neighbors and stop at the first one
+ * in the frontier, which skips most of the edges on the large middle levels of
+ * low-diameter graphs. The search goes bottom-up once the edges leaving the frontier
+ * exceed 1/alpha of the unexplored edges, and back to top-down once the frontier
+ * shrinks below 1/beta of the nodes.
+ * <p>
+ * On an oriented graph the in-neighbors come from a reverse graph, built on the
+ * first bottom-up step unless the caller passes one in to share between searches.
+ */
+public class DirectionOptimizingBfs {
+    public static final int ALPHA = 15;
+    public static final int BETA = 18;
+
+    private static class Search implements IntConsumer, IntPredicate {
+        private final IGraph graph;
+        private IGraph incoming;
+        private final int bound;
+        private final int[] depth;
+        private final int[] parent;
+        private final int[] order;
+        private long[] frontier;
+        private long[] next;
+        private int levelStart;
+        private int levelEnd;
+        private int level;
+        private int current;
+        private int tail;
+        private long scout;
+        private long edges;
+
+        private Search(IGraph graph, IGraph incoming) {
+            this.graph = graph;
+            this.incoming = graph.isOriented() ? incoming : graph;
+            this.bound = graph.bound();
+            this.depth = new int[bound];
+            this.parent = new int[bound];
+            this.order = new int[bound];
+            Arrays.fill(depth, -1);
+            Arrays.fill(parent, -1);
+        }
+
+        // top-down visit of arc current -> v
+        @Override
+        public void accept(int v) {
+            edges++;
+            if (depth[v] < 0) {
+                depth[v] = level;
+                parent[v] = current;
+                order[tail++] = v;
+                scout += graph.grad(v);
+            }
+        }
+
+        // bottom-up check of arc u -> current
+        @Override
+        public boolean test(int u) {
+            edges++;
+            if ((frontier[u >>> 6] & (1L << u)) != 0) {
+                parent[current] = u;
+                return true;
+            }
+            return false;
+        }
+
+        // expands order[levelStart..levelEnd) and returns the out-degree sum of the new frontier
+        private long topDownStep() {
+            tail = levelEnd;
+            scout = 0;
+            for (int i = levelStart; i < levelEnd; i++) {
+                current = order[i];
+                graph.forEachNeighbor(current, this);
+            }
+            levelStart = levelEnd;
+            levelEnd = tail;
+            return scout;
+        }
+
+        // every unvisited node looks for a parent in the frontier bitmap; returns the new frontier size
+        private int bottomUpStep() {
+            Arrays.fill(next, 0);
+            tail = levelEnd;
+            for (int x = 0; x < bound; x++) {
+                if (depth[x] < 0) {
+                    current = x;
+                    if (incoming.anyNeighbor(x, this)) {
+                        depth[x] = level;
+                        order[tail++] = x;
+                        next[x >>> 6] |= 1L << x;
+                    }
+                }
+            }
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+            levelStart = levelEnd;
+            levelEnd = tail;
+            return levelEnd - levelStart;
+        }
+
+        private void frontierToBitmap() {
+            if (incoming == null) {
+                incoming = CsrGraph.reverse(graph);
+            }
+            if (frontier == null) {
+                frontier = new long[(bound + 63) >>> 6];
+                next = new long[frontier.length];
+            }
+            Arrays.fill(frontier, 0);
+            for (int i = levelStart; i < levelEnd; i++) {
+                frontier[order[i] >>> 6] |= 1L << order[i];
+            }
+        }
+    }
+
+    public static BfsResult run(IGraph graph, int source) {
+        return run(graph, source, ALPHA, BETA);
+    }
+
+    public static BfsResult run(IGraph graph, int source, int alpha, int beta) {
+        return run(graph, null, source, alpha, beta);
+    }
+
+    // incoming is the reverse of an oriented graph, e.g. CsrGraph.reverse(graph), or null to build it when needed
+    public static BfsResult run(IGraph graph, IGraph incoming, int source, int alpha, int beta) {
+        if (source < 0 || source >= graph.bound())
+            throw new RuntimeException("Node " + source + " not in graph");
+
+        Metrics.Run metrics = Metrics.start("directionOptimizingBfs");
+        Search search = new Search(graph, incoming);
+        search.depth[source] = 0;
+        search.order[0] = source;
+        search.levelEnd = 1;
+
+        long edgesToCheck = 0;
+        for (int x = 0; x < search.bound; x++) {
+            edgesToCheck += graph.grad(x);
+        }
+        long scout = graph.grad(source);
+        int nodes = graph.numberOfNodes();
+
+        while (search.levelStart < search.levelEnd) {
+            search.level++;
+            if (scout > edgesToCheck / alpha) {
+                if (Metrics.ENABLED) metrics.phase("bottomUp");
+                search.frontierToBitmap();
+                int awake = search.levelEnd - search.levelStart;
+                int oldAwake;
+                do {
+                    if (Metrics.ENABLED) metrics.frontier(search.levelEnd - search.levelStart);
+                    oldAwake = awake;
+                    awake = search.bottomUpStep();
+                    search.level++;
+                } while (awake > 0 && (awake >= oldAwake || awake > nodes / beta));
+                search.level--;
+                scout = 1;
+            } else {
+                if (Metrics.ENABLED) {
+                    metrics.phase("topDown");
+                    metrics.frontier(search.levelEnd - search.levelStart);
+                }
+                edgesToCheck -= scout;
+                scout = search.topDownStep();
+            }
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, search.levelEnd);
+            metrics.add(Metrics.Counter.EDGES_SCANNED, search.edges);
+            metrics.finish();
+        }
+        return new BfsResult(source, Arrays.copyOf(search.order, search.levelEnd), search.depth,
+                search.parent, search.edges);
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable list of edges kept as parallel int arrays. The arrays returned by the
+ * getters may be longer than size(); only the first size() entries are edges.
+ */
+public class EdgeList {
+    private int[] sources;
+    private int[] targets;
+    private int[] weights;
+    private int size;
+
+    public EdgeList(int capacity, boolean weighted) {
+        capacity = Math.max(capacity, 16);
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+        this.weights = weighted ? new int[capacity] : null;
+    }
+
+    public EdgeList(boolean weighted) {
+        this(16, weighted);
+    }
+
+    // joins the parts in order, leaving out the first `skip` edges of the first part
+    public static EdgeList concat(List<EdgeList> parts, int skip, boolean weighted) {
+        int total = -skip;
+        for (EdgeList part : parts) {
+            total += part.size;
+        }
+        EdgeList result = new EdgeList(total, weighted);
+        for (EdgeList part : parts) {
+            int n = part.size - skip;
+            System.arraycopy(part.sources, skip, result.sources, result.size, n);
+            System.arraycopy(part.targets, skip, result.targets, result.size, n);
+            if (weighted) {
+                System.arraycopy(part.weights, skip, result.weights, result.size, n);
+            }
+            result.size += n;
+            skip = 0;
+        }
+        return result;
+    }
+
+    public void add(int x, int y, int weight) {
+        if (size == sources.length) {
+            int capacity = size + (size >> 1);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            if (weights != null) weights = Arrays.copyOf(weights, capacity);
+        }
+        sources[size] = x;
+        targets[size] = y;
+        if (weights != null) weights[size] = weight;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    public int[] getSources() {
+        return sources;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public int[] getWeights() {
+        return weights;
+    }
+}
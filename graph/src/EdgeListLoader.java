@@ -0,0 +1,216 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Reads "x y" or "x y weight" edge lines from a memory-mapped file. The file is cut
+ * into newline-aligned chunks which are parsed straight from the mapped bytes in
+ * parallel. With header set, the first line is an "n m" header, as in graphExample.txt,
+ * and exactly m edge lines must follow it; without it every line is an edge, as in
+ * SNAP files such as facebook_combined.txt. Lines starting with '#' or '%' are comments.
+ * <p>
+ * Node ids must fit in an int unless an {@link IdDictionary} is passed, in which case
+ * they may be any long and are interned to dense ids in order of first appearance.
+ */
+public class EdgeListLoader {
+    private static final long MIN_CHUNK = 1 << 20;
+    private static final long MAX_CHUNK = 1 << 28;
+
+    private static class Chunk {
+        private final EdgeList edges;
+        private final long[] ids;
+        private final int firstLineTokens;
+
+        private Chunk(EdgeList edges, long[] ids, int firstLineTokens) {
+            this.edges = edges;
+            this.ids = ids;
+            this.firstLineTokens = firstLineTokens;
+        }
+    }
+
+    public static EdgeList load(File file, boolean weighted, boolean header) throws IOException {
+        return load(file, weighted, header, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    public static EdgeList load(File file, boolean weighted, boolean header, int parallelism) throws IOException {
+        return load(file, weighted, header, null, parallelism);
+    }
+
+    public static EdgeList load(File file, boolean weighted, boolean header, IdDictionary dictionary) throws IOException {
+        return load(file, weighted, header, dictionary, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    // with a dictionary, the ids are interned and the edges refer to the dense ids
+    public static EdgeList load(File file, boolean weighted, boolean header, IdDictionary dictionary,
+                                int parallelism) throws IOException {
+        boolean wide = dictionary != null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = split(channel, Math.max(parallelism, 1));
+            List<Chunk> chunks;
+            try {
+                chunks = IntStream.range(0, bounds.length - 1).parallel()
+                        .mapToObj(i -> parse(channel, bounds[i], bounds[i + 1], weighted, wide))
+                        .toList();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (header) {
+                chunks = withoutComments(chunks, file);
+            }
+            List<EdgeList> parts = new ArrayList<>(chunks.size());
+            long total = 0;
+            for (Chunk chunk : chunks) {
+                parts.add(chunk.edges);
+                total += chunk.edges.size();
+            }
+            if (header) {
+                Chunk first = chunks.get(0);
+                long m = wide ? first.ids[1] : first.edges.getTargets()[0];
+                if (m != total - 1)
+                    throw new RuntimeException("Header of " + file + " announces " + m + " edges, found " + (total - 1));
+            }
+            EdgeList edges = EdgeList.concat(parts, header ? 1 : 0, weighted);
+            if (wide) {
+                intern(chunks, header ? 1 : 0, edges, dictionary);
+            }
+            return edges;
+        }
+    }
+
+    // drops the chunks before the header, which hold only comments, and checks the header's shape
+    private static List<Chunk> withoutComments(List<Chunk> chunks, File file) {
+        int first = 0;
+        while (first < chunks.size() && chunks.get(first).edges.size() == 0) {
+            first++;
+        }
+        if (first == chunks.size() || chunks.get(first).firstLineTokens != 2)
+            throw new RuntimeException("Expected an \"n m\" header in " + file);
+        return chunks.subList(first, chunks.size());
+    }
+
+    // sequential, so internal ids follow the order of the file
+    private static void intern(List<Chunk> chunks, int skip, EdgeList edges, IdDictionary dictionary) {
+        int[] sources = edges.getSources();
+        int[] targets = edges.getTargets();
+        int i = 0;
+        for (Chunk chunk : chunks) {
+            for (int j = skip; j < chunk.edges.size(); j++) {
+                sources[i] = dictionary.intern(chunk.ids[2 * j]);
+                targets[i++] = dictionary.intern(chunk.ids[2 * j + 1]);
+            }
+            skip = 0;
+        }
+    }
+
+    // chunk boundaries, each one the first byte of a line
+    private static long[] split(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long target = Math.min(Math.max(size / (parallelism * 4L), MIN_CHUNK), MAX_CHUNK);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        for (long pos = target; pos < size; pos += target) {
+            pos = nextLineStart(channel, pos);
+            if (pos >= size) break;
+            bounds.add(pos);
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long pos) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long p = pos - 1;
+        while (true) {
+            buffer.clear();
+            int n = channel.read(buffer, p);
+            if (n <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return p + i + 1;
+                }
+            }
+            p += n;
+        }
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end, boolean weighted, boolean wide) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        EdgeList edges = new EdgeList((int) ((end - start) / 10), weighted);
+        long[] ids = wide ? new long[Math.max((int) ((end - start) / 5), 16)] : null;
+        long[] values = new long[3];
+        int firstLineTokens = -1;
+        int limit = buffer.limit();
+        int i = 0;
+
+        while (i < limit) {
+            byte b = buffer.get(i);
+            if (b == '#' || b == '%') {
+                while (i < limit && buffer.get(i) != '\n') i++;
+                i++;
+                continue;
+            }
+
+            int tokens = 0;
+            while (i < limit && (b = buffer.get(i)) != '\n') {
+                if (b >= '0' && b <= '9' || b == '-') {
+                    boolean negative = b == '-';
+                    if (negative) i++;
+                    long value = 0;
+                    while (i < limit && (b = buffer.get(i)) >= '0' && b <= '9') {
+                        value = value * 10 + (b - '0');
+                        i++;
+                    }
+                    if (tokens < 3) {
+                        values[tokens] = negative ? -value : value;
+                    }
+                    tokens++;
+                } else if (b == ' ' || b == '\t' || b == '\r') {
+                    i++;
+                } else {
+                    throw new NumberFormatException("Unexpected character '" + (char) b + "' at byte " + (start + i));
+                }
+            }
+            i++;
+
+            if (tokens >= 2) {
+                if (firstLineTokens < 0) {
+                    firstLineTokens = tokens;
+                }
+                int weight = tokens > 2 ? (int) values[2] : 0;
+                if (wide) {
+                    int n = edges.size();
+                    if (2 * n + 1 >= ids.length) {
+                        ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1));
+                    }
+                    ids[2 * n] = values[0];
+                    ids[2 * n + 1] = values[1];
+                    edges.add(0, 0, weight);
+                } else {
+                    if (values[0] != (int) values[0] || values[1] != (int) values[1])
+                        throw new NumberFormatException("Node id out of int range at byte " + (start + i)
+                                + "; load with an IdDictionary");
+                    edges.add((int) values[0], (int) values[1], weight);
+                }
+            }
+        }
+        return new Chunk(edges, ids, firstLineTokens);
+    }
+}
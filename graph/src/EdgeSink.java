@@ -0,0 +1,8 @@
+/**
+ * Receives edges one at a time without boxing them; Graph::insertEdge and
+ * EdgeList::add both fit.
+ */
+@FunctionalInterface
+public interface EdgeSink {
+    void accept(int x, int y, int weight);
+}
@@ -1,52 +1,68 @@
 import java.io.*;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Mutable graph on an {@link AdjacencyStore}: primitive per-node rows and a hash set
+ * of edge keys. Inserting an edge that is already there changes nothing except,
+ * on weighted graphs, lowering its weight to the smaller of the two.
+ */
 public class Graph implements IGraph {
-    private final HashMap<Integer, HashSet<Pair>> adjacencyList;
-    private final HashSet<Integer> nodeList;
+    private final AdjacencyStore adjacency;
     private final boolean oriented;
     private final boolean weighted;
-    private int numberOfEdges;
+    private ConnectivityIndex connectivity;
+    private long version;
 
     public Graph(boolean oriented, boolean weighted) {
         this.oriented = oriented;
         this.weighted = weighted;
-        this.adjacencyList = new HashMap<>();
-        this.nodeList = new HashSet<>();
+        this.adjacency = new AdjacencyStore(oriented, weighted);
     }
 
     public Graph() {
         this(false, false);
     }
 
+    private Graph(AdjacencyStore adjacency, boolean oriented, boolean weighted, long version) {
+        this.oriented = oriented;
+        this.weighted = weighted;
+        this.adjacency = adjacency;
+        this.version = version;
+    }
+
+    // a read-only Graph of the current state, in about bound / 64 words; writes made to this one
+    // afterwards copy only the rows they touch, and queries may run on it from any thread
+    public Graph snapshot() {
+        if (adjacency.isSnapshot()) {
+            return this;
+        }
+        return new Graph(adjacency.snapshot(), oriented, weighted, version);
+    }
+
+    public boolean isSnapshot() {
+        return adjacency.isSnapshot();
+    }
+
+    // the file starts with an "n m" header
     @Override
     public void loadFromFile(File file) {
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            // read first line
-            String line = br.readLine();
-            String[] nm = line.split(" ");
-            int n = Integer.parseInt(nm[0]);
-            int m = Integer.parseInt(nm[1]);
-
-            for (int i = 0; i < m; i++){
-                line = br.readLine();
-                if (line != null){
-                    String[] s = line.split(" ");
-                    if (this.weighted) {
-                        this.insertEdge(Integer.parseInt(s[0]),
-                                Integer.parseInt(s[1]),
-                                Integer.parseInt(s[2]));
-                    } else {
-                        this.insertEdge(Integer.parseInt(s[0]),
-                                Integer.parseInt(s[1]));
-                    }
-                }
-            }
+        loadFromFile(file, true);
+    }
 
-        } catch (FileNotFoundException e) {
+    public void loadFromFile(File file, boolean header) {
+        loadFromFile(file, header, null);
+    }
+
+    // with a dictionary the file may use any long ids; they are stored as dense ints
+    public void loadFromFile(File file, boolean header, IdDictionary dictionary) {
+        try {
+            EdgeList edges = EdgeListLoader.load(file, weighted, header, dictionary);
+            insertEdges(edges.getSources(), edges.getTargets(), edges.getWeights(), edges.size());
+        } catch (NoSuchFileException e) {
             e.printStackTrace();
             System.out.println("File not found");
         } catch (IOException e) {
@@ -55,56 +71,112 @@ public class Graph implements IGraph {
         }
     }
 
+    @Override
+    public void saveBinary(File file) throws IOException {
+        CsrGraph.from(this).saveBinary(file);
+    }
+
     @Override
     public Set<Integer> listNodes() {
-        return nodeList;
+        Set<Integer> result = new HashSet<>(adjacency.numberOfNodes() * 2);
+        adjacency.nodes().stream().forEach(result::add);
+        return result;
+    }
+
+    @Override
+    public boolean containsNode(int x) {
+        return adjacency.containsNode(x);
     }
 
     @Override
     public List<Pair> listEdges() {
-        List<Pair> result = new ArrayList<>();
-        if (oriented) {
-            adjacencyList.forEach((x, hashSet) -> hashSet.forEach(p -> result.add(new Pair(x, p.getA()))));
-        } else {
-            adjacencyList.forEach((x, hashSet) -> hashSet.forEach(p -> {
-                if (x < p.getA()) {
-                    result.add(new Pair(x, p.getA()));
+        List<Pair> result = new ArrayList<>(numberOfEdges());
+        for (int x = 0; x < bound(); x++) {
+            int source = x;
+            adjacency.forEach(x, y -> {
+                if (oriented || source < y) {
+                    result.add(new Pair(source, y));
                 }
-            }));
+            });
         }
         return result;
     }
 
     @Override
     public List<Integer> listNeighbors(int x) {
-        return adjacencyList.get(x).stream().map(Pair::getA).toList();
+        List<Integer> result = new ArrayList<>(adjacency.degree(x));
+        adjacency.forEach(x, (IntConsumer) result::add);
+        return result;
     }
 
     @Override
     public List<Pair> listNeighborsWithWeight(int x) {
         if (!weighted)
             throw new RuntimeException("Graph not weighted");
-        return adjacencyList.get(x).stream().toList();
+        List<Pair> result = new ArrayList<>(adjacency.degree(x));
+        adjacency.forEach(x, (y, w) -> result.add(new Pair(y, w)));
+        return result;
+    }
+
+    @Override
+    public void forEachNeighbor(int x, IntConsumer action) {
+        adjacency.forEach(x, action);
+    }
+
+    @Override
+    public void forEachNeighbor(int x, NeighborConsumer action) {
+        adjacency.forEach(x, action);
+    }
+
+    @Override
+    public void forEachInNeighbor(int x, NeighborConsumer action) {
+        adjacency.forEachIn(x, action);
+    }
+
+    @Override
+    public boolean anyNeighbor(int x, IntPredicate test) {
+        return adjacency.any(x, test);
     }
 
     @Override
     public int numberOfNodes() {
-        return nodeList.size();
+        return adjacency.numberOfNodes();
+    }
+
+    @Override
+    public int bound() {
+        return adjacency.bound();
     }
 
     @Override
     public int numberOfEdges() {
-        return numberOfEdges;
+        return adjacency.numberOfEdges();
+    }
+
+    // counts the writes that changed the graph, or on weighted graphs may have lowered a weight
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public boolean isOriented() {
+        return oriented;
+    }
+
+    @Override
+    public boolean isWeighted() {
+        return weighted;
     }
 
     @Override
     public int grad(int x) {
-        return adjacencyList.get(x).size();
+        return adjacency.degree(x);
     }
 
     @Override
     public boolean areAdjacent(int x, int y) {
-        return listNeighbors(x).contains(y);
+        return adjacency.contains(x, y);
     }
 
     @Override
@@ -114,26 +186,34 @@ public class Graph implements IGraph {
 
     @Override
     public void insertEdge(int x, int y, int weight) {
-        adjacencyList.computeIfAbsent(x, k -> new HashSet<>());
-        adjacencyList.get(x).add(new Pair(y, weight));
-        if (!oriented) {
-            adjacencyList.computeIfAbsent(y, k -> new HashSet<>());
-            adjacencyList.get(y).add(new Pair(x,weight));
+        if (adjacency.insert(x, y, weight) || weighted) {
+            version++;
+        }
+        if (connectivity != null) {
+            connectivity.union(x, y);
         }
-        nodeList.add(x);
-        nodeList.add(y);
-        numberOfEdges++;
     }
 
     @Override
     public void insertEdge(int x, int y) {
         if (weighted)
             throw new RuntimeException("Weight omitted!");
-        nodeList.add(x);
-        nodeList.add(y);
         insertEdge(x, y, 0);
     }
 
+    // sorts and deduplicates the batch, then merges it into the rows in one pass
+    @Override
+    public void insertEdges(int[] src, int[] dst, int[] w, int m) {
+        if (adjacency.insertAll(src, dst, w, m) > 0 || weighted && m > 0) {
+            version++;
+        }
+        if (connectivity != null) {
+            for (int i = 0; i < m; i++) {
+                connectivity.union(src[i], dst[i]);
+            }
+        }
+    }
+
     @Override
     public void deleteEdge(Pair pair) {
         this.deleteEdge(pair.getA(), pair.getB());
@@ -141,523 +221,193 @@ public class Graph implements IGraph {
 
     @Override
     public void deleteEdge(int x, int y) {
-        deleteNode(x);
-        deleteNode(y);
-        numberOfEdges--;
+        if (adjacency.remove(x, y)) {
+            version++;
+            connectivity = null;
+        }
     }
 
     @Override
     public void deleteNode(int n) {
-        List<Integer> integers = this.listNeighbors(n);
-        integers.forEach(i -> {
-            if (adjacencyList.get(i) != null) {
-                adjacencyList.get(i).removeIf(p -> p.getA().equals(n));
-            }
-        });
-        nodeList.remove(n);
-        adjacencyList.remove(n);
+        if (adjacency.removeNode(n)) {
+            version++;
+            connectivity = null;
+        }
     }
 
+    // merges p.getB() into p.getA(); the edge between them disappears and parallel edges keep the smaller weight
     @Override
     public void contrEdge(Pair p) {
-        List<Integer> neighborsOfY = this.listNeighbors(p.getB());
-        List<Integer> neighborsOfX = this.listNeighbors(p.getA());
-        Set<Integer> neighbors = new HashSet<>();
-        neighbors.addAll(neighborsOfX);
-        neighbors.addAll(neighborsOfY);
-        neighbors.remove(p.getA());
-        this.deleteNode(p.getA());
-        nodeList.remove(p.getA());
-        System.out.println(neighbors);
+        if (!adjacency.contract(p.getA(), p.getB()))
+            throw new RuntimeException("No edge between " + p.getA() + " and " + p.getB());
+        version++;
+        connectivity = null;
+    }
+
+    // reclaims the space left behind by deletions
+    public void compact() {
+        adjacency.compact();
     }
 
     @Override
     public List<Integer> bfs(int s) {
         List<Integer> result = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        LinkedList<Integer> queue = new LinkedList<>();
-
-        visited.add(s);
-        queue.add(s);
+        BitSet visited = new BitSet();
+        int[] queue = new int[Math.max(numberOfNodes(), 1)];
+        int[] tail = {0};
+        Metrics.Run metrics = Metrics.start("bfs");
+        long[] scanned = {0};
+        IntConsumer visit = n -> {
+            if (Metrics.ENABLED) scanned[0]++;
+            if (!visited.get(n)) {
+                visited.set(n);
+                queue[tail[0]++] = n;
+            }
+        };
 
-        while (queue.size() != 0) {
+        visited.set(s);
+        queue[tail[0]++] = s;
 
-            s = queue.poll();
+        int levelEnd = 0;
+        for (int head = 0; head < tail[0]; head++) {
+            if (Metrics.ENABLED && head == levelEnd) {
+                metrics.frontier(tail[0] - head);
+                levelEnd = tail[0];
+            }
+            s = queue[head];
             result.add(s);
-
-            listNeighbors(s).forEach(n -> {
-                if (!visited.contains(n)) {
-                    visited.add(n);
-                    queue.add(n);
-                }
-            });
-
+            forEachNeighbor(s, visit);
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.NODES_VISITED, tail[0]);
+            metrics.add(Metrics.Counter.EDGES_SCANNED, scanned[0]);
+            metrics.finish();
         }
         return result;
     }
 
     public List<Integer> dfs(int s) {
         List<Integer> result = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-        Stack<Integer> stack = new Stack<>();
-
-        visited.add(s);
-        stack.add(s);
+        BitSet visited = new BitSet();
+        int[] stack = new int[Math.max(numberOfNodes(), 1)];
+        int[] top = {0};
+        IntConsumer visit = n -> {
+            if (!visited.get(n)) {
+                visited.set(n);
+                stack[top[0]++] = n;
+            }
+        };
 
-        while (!stack.isEmpty()) {
+        visited.set(s);
+        stack[top[0]++] = s;
 
-            s = stack.pop();
+        while (top[0] > 0) {
+            s = stack[--top[0]];
             result.add(s);
-
-            listNeighbors(s).forEach(n -> {
-                if (!visited.contains(n)) {
-                    visited.add(n);
-                    stack.add(n);
-                }
-            });
+            forEachNeighbor(s, visit);
         }
 
         return result;
     }
 
-    public List<Set<Integer>> refine(List<Set<Integer>> list, Set<Integer> u) {
-        List<Set<Integer>> result = new LinkedList<>();
-        Set<Integer> s1 = new HashSet<>();
-        Set<Integer> s2 = new HashSet<>();
-        list.forEach(s -> {
-            s.forEach(v -> {
-                u.forEach(u1 -> {
-                    if (u1.equals(v)) {
-                        s1.add(v);
-                    }
-                });
-            });
-            if (list.size() > 1 && list.get(1).isEmpty()) {
-                s1.addAll(u);
-            }
-            if (s.containsAll(u)) {
-                s2.addAll(s);
-                s2.removeAll(u);
-            }
-        });
-        result.add(s1);
-        result.add(s2);
-
-        return result;
-    }
-
-    private List<Set<Integer>> separateListOnSets(List<Integer> vertices, Integer s) {
-        List<Set<Integer>> list = new LinkedList<>();
-        Set<Integer> s1 = new HashSet<>();
-        Set<Integer> s2 = new HashSet<>();
-
-        for (Integer v : vertices) {
-            if (v.equals(s)) {
-                s1.add(v);
-                s2.add(v);
-            } else {
-                s2.add(v);
-            }
-        }
-
-        list.add(s1);
-        list.add(s2);
-        return list;
-    }
-
     public List<Integer> lexBfs(int s) {
-        List<Integer> result = new ArrayList<>();
-        List<Set<Integer>> list = separateListOnSets(listNodes().stream().toList(), s);
-        Set<Integer> visited = new HashSet<>();
-
-        for (int i = 0; i < numberOfNodes(); i++) {
-            Set<Integer> nodes = list.get(0);
-            nodes.forEach(node -> {
-                visited.add(node);
-                result.add(node);
-            });
-            if (result.size() == numberOfNodes()) {
-                break;
-            }
-            list = refine(list, nodes);
-            Set<Integer> unvisited = new HashSet<>();
-            nodes.forEach(node -> {
-                listNeighbors(node).forEach(neighbor -> {
-                    if (!visited.contains(neighbor)) {
-                        unvisited.add(neighbor);
-                    }
-                });
-            });
-            list = refine(list, unvisited);
+        int[] order = LexBfs.order(this, s);
+        List<Integer> result = new ArrayList<>(order.length);
+        for (int x : order) {
+            result.add(x);
         }
-
         return result;
     }
 
-    public List<Integer> disjktra(int s) {
-        if (!weighted)
-            throw new RuntimeException("Graph not weighted");
-
-        // init
-        List<Integer> dist = new ArrayList<>(this.numberOfNodes());
-        PriorityQueue<Pair> queue = new PriorityQueue<>();
-        IntStream.range(0, this.numberOfNodes()).forEach(x -> dist.add(Integer.MAX_VALUE));
-        dist.set(0, s);
-        queue.add(new Pair(dist.get(s), s));
-
-        while (!queue.isEmpty()) {
-            Integer x = queue.poll().getB();
-            listNeighborsWithWeight(x).forEach(p -> {
-                Integer y = p.getA();
-                Integer w = p.getB();
-                int newDist = dist.get(x) + w;
-                if (dist.get(y) > newDist) {
-                    queue.remove(new Pair(dist.get(y), y));
-                    dist.set(y, newDist);
-                    queue.add(new Pair(dist.get(y), y));
-                }
-            });
-        }
+    public boolean isChordal() {
+        return LexBfs.isChordal(this);
+    }
 
-        return dist;
+    public List<Integer> disjktra(int s) {
+        return Dijkstra.run(this, s).toList();
     }
 
-    private boolean isInParents(Map<Integer, Integer> parents, Integer y) {
-        int currentNode = y;
-        while (true) {
-            Integer parent = parents.get(currentNode);
-            if (parent == null) break;
-            if (y.equals(parent)) {
-                return true;
-            }
-            currentNode = parent;
-        }
-        return false;
+    public List<Integer> deltaStepping(int s) {
+        return DeltaStepping.run(this, s).toList();
     }
 
     public List<Integer> aStar(int start, int end, List<Integer> h) {
-        if (!weighted)
-            throw new RuntimeException("Graph not weighted");
-
-        // init
-        Queue<Tuple> open = new PriorityQueue<>(Comparator.comparingInt(Tuple::getF));
-        LinkedList<Integer> closed = new LinkedList<>();
-        List<Integer> g = new ArrayList<>(this.numberOfNodes());
-        List<Integer> f = new ArrayList<>(this.numberOfNodes());
-        IntStream.range(0, this.numberOfNodes()).forEach(x -> g.add(0));
-        f.addAll(h);
-        Map<Integer, Integer> parents = new HashMap<>(this.numberOfNodes());
-        open.add(new Tuple(start, g.get(start), f.get(start)));
-
-        while (!open.isEmpty()) {
-            Integer node = open.poll().getN();
-            closed.add(node);
-
-            if (node.equals(end)) {
-                break;
-            }
-
-            listNeighborsWithWeight(node).forEach(p -> {
-                Integer y = p.getA();
-                Integer w = p.getB();
-
-                if (!isInParents(parents, y)) {
-                    int g_suc = g.get(node) + w;
-                    int f_suc = g_suc + h.get(node);
-
-                    if (closed.contains(y)) {
-                        if (f_suc < f.get(y)) {
-                            closed.removeIf(x -> x.equals(y));
-                            parents.put(y, node);
-                            g.set(y, g_suc);
-                            f.set(y, f_suc);
-                            open.add(new Tuple(y, g_suc, f_suc));
-                        }
-                    } else {
-                        if (open.stream().anyMatch(t -> t.getN().equals(y))) {
-                            if (f_suc < f.get(y)) {
-                                open.removeIf(t -> t.getN().equals(y));
-                                parents.put(y, node);
-                                g.set(y, g_suc);
-                                f.set(y, f_suc);
-                                open.add(new Tuple(y, g_suc, f_suc));
-                            }
-                        } else {
-                            open.add(new Tuple(y, g_suc, f_suc));
-                            g.set(y, g_suc);
-                            f.set(y, f_suc);
-                        }
-                    }
-                }
-            });
-        }
-        return g;
+        return aStar(start, end, h::get);
     }
 
+    public List<Integer> aStar(int start, int end, IntUnaryOperator h) {
+        return AStar.run(this, start, end, h).toList();
+    }
 
-    private static class inParallelWhile implements Runnable {
-
-        private final Graph graph;
-        private final LinkedList<Integer> cq;
-        private final LinkedList<Integer> nq;
-        private final List<AtomicBoolean> visited;
-        private final List<Integer> parents;
 
-        public inParallelWhile(Graph graph, LinkedList<Integer> cq, LinkedList<Integer> nq, List<AtomicBoolean> visited, List<Integer> parents) {
-            this.graph = graph;
-            this.cq = cq;
-            this.nq = nq;
-            this.visited = visited;
-            this.parents = parents;
-        }
+    public PathResult bidirectionalDijkstra(int start, int end) {
+        return BidirectionalSearch.run(this, start, end);
+    }
 
-        @Override
-        public void run() {
-            Integer u = cq.poll();
-            if (u != null) {
-                graph.listNeighbors(u).forEach(v -> {
-                    AtomicBoolean a = visited.get(v);
-                    if (!a.get()) {
-                        if (!a.getAndSet(true)) {
-                            parents.set(v, u);
-                            nq.add(v);
-                        }
-                    }
-                });
-            }
-        }
+    // toEnd and fromStart estimate the distances to end and from start; both must be consistent
+    public PathResult bidirectionalAStar(int start, int end, IntUnaryOperator toEnd, IntUnaryOperator fromStart) {
+        return BidirectionalSearch.run(this, start, end, toEnd, fromStart);
     }
 
+
     public List<Integer> pbfs(int s) {
-        List<Integer> parents = new ArrayList<>(this.numberOfNodes());
-        List<AtomicBoolean> visited = new ArrayList<>(this.numberOfNodes());
-        LinkedList<Integer> cq = new LinkedList<>();
-        LinkedList<Integer> nq = new LinkedList<>();
-        IntStream.range(0, this.numberOfNodes()).parallel().forEach(x -> parents.add(Integer.MAX_VALUE));
-        IntStream.range(0, this.numberOfNodes()).parallel().forEach(x -> visited.add(new AtomicBoolean(false)));
-        List<Thread> threads = new LinkedList<>();
-
-        parents.set(s, Integer.MAX_VALUE);
-        visited.get(s).getAndSet(true);
-        cq.add(s);
-
-        while (cq.size() != 0) {
-            nq.clear();
-            while (cq.size() != 0) {
-                Thread thread = new Thread(new inParallelWhile(this, cq, nq, visited, parents));
-                threads.add(thread);
-                thread.start();
-            }
-            // synchronize
-            threads.forEach(thread -> {
-                try {
-                    thread.join();
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            });
-            // swap
-            cq.addAll(nq);
-            nq.clear();
-        }
-        // create result from parent tree
-        List<Integer> result = new ArrayList<>(this.numberOfNodes());
-        LinkedList<Integer> queue = new LinkedList<>();
-        queue.add(s);
-        result.add(s);
-        while (queue.size() != 0) {
-            Integer c = queue.poll();
-            for (int i = 0; i < parents.size(); i++) {
-                Integer p = parents.get(i);
-                if (Objects.equals(p, c)) {
-                    result.add(i);
-                    queue.add(i);
-                }
-            }
-        }
-        return result;
+        return ParallelBfs.run(this, s).toList();
     }
 
-    private void isolate(int v) {
-        if (adjacencyList.values().stream().flatMap(Set::stream).anyMatch(x -> x.getA().equals(v))) {
-            adjacencyList.keySet().stream().parallel().forEach(x -> {
-                adjacencyList.get(x).removeIf(p -> p.getA().equals(v));
-            });
-        }
+    // top-down on small frontiers, bottom-up on large ones; same order of levels as pbfs
+    public List<Integer> dobfs(int s) {
+        return DirectionOptimizingBfs.run(this, s).toList();
     }
 
-    private void pdfsRecursive(int v, List<Integer> l) {
+    private void pdfsRecursive(int v, List<Integer> l, BitSet visited) {
         l.add(v);
-        isolate(v);
-        while (grad(v) > 0) {
-            Optional<Pair> first = adjacencyList.get(v).stream().findFirst();
-            if (first.isPresent()) {
-                Integer u = first.get().getA();
-                pdfsRecursive(u, l);
+        visited.set(v);
+        forEachNeighbor(v, u -> {
+            if (!visited.get(u)) {
+                pdfsRecursive(u, l, visited);
             }
-        }
+        });
     }
 
     public List<Integer> pdfs(int s) {
-        LinkedList<Integer> l = new LinkedList<>();
-        //makeDirected();
-        pdfsRecursive(s, l);
+        List<Integer> l = new ArrayList<>();
+        pdfsRecursive(s, l, new BitSet());
         return l;
     }
 
-    private boolean directConnect(List<Integer> p, List<Integer> o) {
-        AtomicBoolean change = new AtomicBoolean(false);
-        this.listEdges().stream().parallel().forEach(pair -> {
-            Integer v = pair.getA();
-            Integer w = pair.getB();
-            o.set(v, p.get(v));
-            Integer parent = o.get(v);
-            if (v > w) {
-                parent = Math.min(parent, w);
-            }
-            p.set(v, parent);
-            if (!o.get(v).equals(p.get(v))) {
-                change.set(true);
-            }
-        });
-        return change.get();
+    // union-find over the (weakly) connected components, kept current by insertEdge;
+    // a deletion or contraction drops it and the next call rebuilds it from the adjacency
+    public ConnectivityIndex trackConnectivity() {
+        if (connectivity == null) {
+            connectivity = ConnectivityIndex.of(this);
+        }
+        return connectivity;
     }
 
-
-    private boolean parentConnect(List<Integer> p, List<Integer> o) {
-        AtomicBoolean change = new AtomicBoolean(false);
-        listNodes().stream().parallel().forEach(v -> {
-            o.set(v, p.get(v));
-        });
-
-        listEdges().stream().parallel().forEach(pair -> {
-            Integer v = pair.getA();
-            Integer w = pair.getB();
-            if (o.get(v) > o.get(w)) {
-                synchronized (p) {
-                    p.set(o.get(v), Math.min(p.get(o.get(v)), o.get(w)));
-                }
-            }
-        });
-        return change.get();
-    }
-
-    private boolean directRootConnect(List<Integer> p, List<Integer> o) {
-        AtomicBoolean change = new AtomicBoolean(false);
-        this.listEdges().stream().parallel().forEach(pair -> {
-            Integer v = pair.getA();
-            Integer w = pair.getB();
-            if (p.get(v).equals(v)) {
-                int parent = v;
-                if (v > w) {
-                    parent = Math.min(parent, w);
-                }
-                p.set(v, parent);
-                if (!p.get(v).equals(v)) {
-                    change.set(true);
-                }
-            }
-        });
-        return change.get();
+    public boolean connected(int x, int y) {
+        return trackConnectivity().connected(x, y);
     }
 
-    private boolean shortcut(List<Integer> p, List<Integer> o) {
-        AtomicBoolean change = new AtomicBoolean(false);
-        listNodes().stream().parallel().forEach(v -> {
-            o.set(v, p.get(v));
-        });
-        listNodes().stream().parallel().forEach(v -> {
-            p.set(v, o.get(o.get(v)));
-            if (!p.get(v).equals(o.get(v))) {
-                change.set(true);
-            }
-        });
-        return change.get();
+    public int componentOf(int x) {
+        return trackConnectivity().componentOf(x);
     }
 
-    private boolean alter(List<Integer> parents) {
-        AtomicBoolean change = new AtomicBoolean(false);
-        listEdges().stream().parallel().forEach(pair -> {
-            Integer v = pair.getA();
-            Integer w = pair.getB();
-            //if (!parents.get(v).equals(parents.get(w))) {
-            //    synchronized ()
-            //}
-        });
-        return change.get();
-    }
-
-    private List<Collection<Integer>> parentsToComponents(List<Integer> parents) {
-        System.out.println(parents);
-        HashSet<Integer> colors = new HashSet<>(parents);
-        List<Collection<Integer>> response = new ArrayList<>(colors.size());
-        colors.forEach(c -> {
-            Set<Integer> component = new HashSet<>();
-            for (int i = 0; i < parents.size(); i++) {
-                if (Objects.equals(parents.get(i), c)) {
-                    component.add(i);
-                }
-            }
-            response.add(component);
-        });
-        return response;
+    public int componentCount() {
+        return trackConnectivity().componentCount();
     }
 
     @Override
     public List<Collection<Integer>> algorithmS() {
-        List<Integer> p = new ArrayList<>(this.numberOfNodes());
-        IntStream.range(0, this.numberOfNodes()).forEach(p::add);
-        List<Integer> o = new ArrayList<>(this.numberOfNodes());
-        IntStream.range(0, this.numberOfNodes()).forEach(o::add);
-
-        boolean parentsChange;
-        boolean shortcutChange;
-
-        do {
-            parentsChange = parentConnect(p, o);
-            do {
-                shortcutChange = shortcut(p, o);
-            } while (shortcutChange);
-        } while (parentsChange);
-
-        return parentsToComponents(p);
+        return ConnectedComponents.components(this, ConnectedComponents.Algorithm.S);
     }
 
     @Override
     public List<Collection<Integer>> algorithmA() {
-        List<Integer> p = new ArrayList<>(this.numberOfNodes());
-        IntStream.range(0, this.numberOfNodes()).forEach(p::add);
-        List<Integer> o = new ArrayList<>(this.numberOfNodes());
-        IntStream.range(0, this.numberOfNodes()).forEach(o::add);
-
-        boolean changes1;
-        boolean changes2;
-
-        do {
-            changes1 = directConnect(p, o);
-            changes2 = shortcut(p, o);
-            alter(p);
-        } while (changes1 || changes2);
-
-        return parentsToComponents(p);
+        return ConnectedComponents.components(this, ConnectedComponents.Algorithm.A);
     }
 
     @Override
     public List<Collection<Integer>> algorithmRA() {
-        List<Integer> p = new ArrayList<>(this.numberOfNodes());
-        IntStream.range(0, this.numberOfNodes()).forEach(p::add);
-        List<Integer> o = new ArrayList<>(this.numberOfNodes());
-        IntStream.range(0, this.numberOfNodes()).forEach(o::add);
-
-        boolean changes1;
-        boolean changes2;
-
-        do {
-            changes1 = directRootConnect(p, o);
-            changes2 = shortcut(p, o);
-            alter(p);
-        } while (changes1 && changes2);
-
-        return parentsToComponents(p);
+        return ConnectedComponents.components(this, ConnectedComponents.Algorithm.RA);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,371 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded synthetic graphs for scale tests: R-MAT (Kronecker), Erdos-Renyi G(n, m),
+ * Barabasi-Albert and 2D grids, unweighted or with uniform weights in 1..maxWeight,
+ * directed or undirected.
+ * <p>
+ * Edges are produced in blocks of BLOCK edge slots and every block draws from its own
+ * SplittableRandom seeded by (seed, block), so the output depends only on the
+ * parameters and the seed, never on how many threads produced it. Barabasi-Albert
+ * resolves each edge from hashes of its index (the copy model of Batagelj and
+ * Brandes), which makes it as parallel as the others. Like the originals, R-MAT,
+ * Erdos-Renyi and Barabasi-Albert may repeat edges; every graph builder drops them.
+ */
+public abstract class GraphGenerator {
+    private static final int BLOCK = 1 << 16;
+
+    protected final long seed;
+    private boolean oriented;
+    private int maxWeight;
+
+    protected GraphGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // 2^scale nodes, edgeFactor * 2^scale edges, Graph500 probabilities; node ids are scrambled
+    public static GraphGenerator rmat(int scale, int edgeFactor, long seed) {
+        return rmat(scale, edgeFactor, 0.57, 0.19, 0.19, seed);
+    }
+
+    public static GraphGenerator rmat(int scale, int edgeFactor, double a, double b, double c, long seed) {
+        if (scale < 1 || scale > 31 || a + b + c > 1)
+            throw new RuntimeException("Invalid R-MAT parameters");
+        return new Rmat(scale, (long) edgeFactor << scale, a, b, c, seed);
+    }
+
+    // m edges between uniformly chosen distinct nodes of 0..n-1
+    public static GraphGenerator erdosRenyi(int n, long m, long seed) {
+        if (n < 2)
+            throw new RuntimeException("Erdos-Renyi needs at least 2 nodes");
+        return new ErdosRenyi(n, m, seed);
+    }
+
+    // n nodes, each attaching d edges to endpoints picked proportionally to degree
+    public static GraphGenerator barabasiAlbert(int n, int d, long seed) {
+        return new BarabasiAlbert(n, d, seed);
+    }
+
+    // rows x cols lattice with edges to the right and below; oriented grids get both directions
+    public static GraphGenerator grid(int rows, int cols, long seed) {
+        return new Grid(rows, cols, seed);
+    }
+
+    public GraphGenerator oriented(boolean oriented) {
+        this.oriented = oriented;
+        return this;
+    }
+
+    // 0 for an unweighted graph
+    public GraphGenerator weighted(int maxWeight) {
+        if (maxWeight < 0)
+            throw new RuntimeException("Negative weight bound");
+        this.maxWeight = maxWeight;
+        return this;
+    }
+
+    public boolean isOriented() {
+        return oriented;
+    }
+
+    public boolean isWeighted() {
+        return maxWeight > 0;
+    }
+
+    // number of edge slots; some generators leave slots empty or repeat edges
+    public abstract long slots();
+
+    // emits the edges of slots [from, to)
+    protected abstract void generate(long from, long to, SplittableRandom random, EdgeSink sink);
+
+    protected int weight(SplittableRandom random) {
+        return maxWeight > 0 ? 1 + random.nextInt(maxWeight) : 0;
+    }
+
+    protected static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private int blocks() {
+        long blocks = (slots() + BLOCK - 1) / BLOCK;
+        if (blocks > Integer.MAX_VALUE)
+            throw new RuntimeException("Too many edges: " + slots());
+        return (int) blocks;
+    }
+
+    private void generateBlock(int block, EdgeSink sink) {
+        long from = (long) block * BLOCK;
+        long to = Math.min(from + BLOCK, slots());
+        generate(from, to, new SplittableRandom(mix(seed ^ mix(block))), sink);
+    }
+
+    // streams every edge into sink, in order, from the calling thread
+    public void generate(EdgeSink sink) {
+        for (int block = 0; block < blocks(); block++) {
+            generateBlock(block, sink);
+        }
+    }
+
+    // blocks are generated in parallel and joined in order
+    public EdgeList toEdgeList() {
+        List<EdgeList> parts = IntStream.range(0, blocks()).parallel().mapToObj(block -> {
+            EdgeList part = new EdgeList(BLOCK, isWeighted());
+            generateBlock(block, part::add);
+            return part;
+        }).toList();
+        return EdgeList.concat(parts, 0, isWeighted());
+    }
+
+    public CsrGraph toCsr() {
+        EdgeList edges = toEdgeList();
+        return CsrGraph.fromEdges(edges.getSources(), edges.getTargets(), edges.getWeights(), edges.size(),
+                oriented, isWeighted());
+    }
+
+    public Graph toGraph() {
+        EdgeList edges = toEdgeList();
+        Graph graph = new Graph(oriented, isWeighted());
+        graph.insertEdges(edges.getSources(), edges.getTargets(), edges.getWeights(), edges.size());
+        return graph;
+    }
+
+    /**
+     * Writes "x y" or "x y weight" lines that EdgeListLoader reads back. Batches of
+     * blocks are formatted in parallel and written at their offsets with positional
+     * writes, so memory stays bounded by the batch size.
+     */
+    public void write(File file) throws IOException {
+        int batch = Math.max(1, ForkJoinPool.getCommonPoolParallelism() * 4);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            for (int first = 0; first < blocks(); first += batch) {
+                int start = first;
+                List<ByteBuffer> texts = IntStream.range(start, Math.min(start + batch, blocks())).parallel()
+                        .mapToObj(this::format).toList();
+                List<Long> positions = new ArrayList<>(texts.size());
+                for (ByteBuffer text : texts) {
+                    positions.add(position);
+                    position += text.remaining();
+                }
+                try {
+                    IntStream.range(0, texts.size()).parallel().forEach(i -> {
+                        try {
+                            ByteBuffer text = texts.get(i);
+                            long at = positions.get(i);
+                            while (text.hasRemaining()) {
+                                at += channel.write(text, at);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+
+    private ByteBuffer format(int block) {
+        byte[][] text = {new byte[BLOCK * 16]};
+        int[] size = {0};
+        boolean weighted = isWeighted();
+        generateBlock(block, (x, y, w) -> {
+            if (size[0] + 36 > text[0].length) {
+                text[0] = Arrays.copyOf(text[0], text[0].length * 2);
+            }
+            size[0] = appendInt(text[0], size[0], x);
+            text[0][size[0]++] = ' ';
+            size[0] = appendInt(text[0], size[0], y);
+            if (weighted) {
+                text[0][size[0]++] = ' ';
+                size[0] = appendInt(text[0], size[0], w);
+            }
+            text[0][size[0]++] = '\n';
+        });
+        return ByteBuffer.wrap(text[0], 0, size[0]);
+    }
+
+    // non-negative values only
+    private static int appendInt(byte[] text, int at, int value) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        for (int i = at + digits - 1; i >= at; i--) {
+            text[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return at + digits;
+    }
+
+    private static class Rmat extends GraphGenerator {
+        private final int scale;
+        private final long m;
+        // quadrant thresholds scaled to 32-bit draws
+        private final long a;
+        private final long ab;
+        private final long abc;
+        private final int mask;
+        private final int multiplier;
+        private final int offset;
+
+        private Rmat(int scale, long m, double a, double b, double c, long seed) {
+            super(seed);
+            this.scale = scale;
+            this.m = m;
+            this.a = (long) (a * 0x1p32);
+            this.ab = (long) ((a + b) * 0x1p32);
+            this.abc = (long) ((a + b + c) * 0x1p32);
+            this.mask = (int) ((1L << scale) - 1);
+            this.multiplier = (int) mix(seed) | 1;
+            this.offset = (int) mix(~seed);
+        }
+
+        @Override
+        public long slots() {
+            return m;
+        }
+
+        // a bijection of 0..2^scale-1, so hubs do not all sit at the small ids
+        private int scramble(int x) {
+            x = (x * multiplier + offset) & mask;
+            x ^= x >>> (scale + 1) / 2;
+            return (x * multiplier) & mask;
+        }
+
+        @Override
+        protected void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+            for (long e = from; e < to; e++) {
+                int x = 0;
+                int y = 0;
+                long bits = 0;
+                for (int bit = 0; bit < scale; bit++) {
+                    // two 32-bit draws per long; the quadrant is picked without branches
+                    if ((bit & 1) == 0) bits = random.nextLong();
+                    long p = (bits >>> ((bit & 1) << 5)) & 0xffffffffL;
+                    int row = p >= ab ? 1 : 0;
+                    int column = (p >= a ? 1 : 0) ^ row ^ (p >= abc ? 1 : 0);
+                    x |= row << bit;
+                    y |= column << bit;
+                }
+                sink.accept(scramble(x), scramble(y), weight(random));
+            }
+        }
+    }
+
+    private static class ErdosRenyi extends GraphGenerator {
+        private final int n;
+        private final long m;
+
+        private ErdosRenyi(int n, long m, long seed) {
+            super(seed);
+            this.n = n;
+            this.m = m;
+        }
+
+        @Override
+        public long slots() {
+            return m;
+        }
+
+        @Override
+        protected void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+            for (long e = from; e < to; e++) {
+                int x = random.nextInt(n);
+                int y = random.nextInt(n - 1);
+                sink.accept(x, y >= x ? y + 1 : y, weight(random));
+            }
+        }
+    }
+
+    private static class BarabasiAlbert extends GraphGenerator {
+        private final int d;
+        private final long m;
+
+        private BarabasiAlbert(int n, int d, long seed) {
+            super(seed);
+            this.d = d;
+            this.m = (long) n * d;
+        }
+
+        @Override
+        public long slots() {
+            return m;
+        }
+
+        /*
+         * Endpoint list M: M[2e] is the source of edge e, node e / d, and M[2e + 1] its
+         * target, a uniform pick from M[0..2e]. Picking a target means following odd
+         * positions back to an even one, with the pick for each edge fixed by a hash.
+         */
+        private int target(long e) {
+            while (true) {
+                long r = Long.remainderUnsigned(mix(seed ^ mix(e)), 2 * e + 1);
+                if ((r & 1) == 0) {
+                    return (int) (r / 2 / d);
+                }
+                e = r / 2;
+            }
+        }
+
+        @Override
+        protected void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+            for (long e = from; e < to; e++) {
+                sink.accept((int) (e / d), target(e), weight(random));
+            }
+        }
+    }
+
+    private static class Grid extends GraphGenerator {
+        private final int rows;
+        private final int cols;
+
+        private Grid(int rows, int cols, long seed) {
+            super(seed);
+            if ((long) rows * cols > Integer.MAX_VALUE)
+                throw new RuntimeException("Grid too large");
+            this.rows = rows;
+            this.cols = cols;
+        }
+
+        @Override
+        public long slots() {
+            return 2L * rows * cols;
+        }
+
+        @Override
+        protected void generate(long from, long to, SplittableRandom random, EdgeSink sink) {
+            for (long e = from; e < to; e++) {
+                int x = (int) (e / 2);
+                int r = x / cols;
+                int c = x % cols;
+                int y;
+                if ((e & 1) == 0) {
+                    if (c == cols - 1) continue;
+                    y = x + 1;
+                } else {
+                    if (r == rows - 1) continue;
+                    y = x + cols;
+                }
+                int w = weight(random);
+                sink.accept(x, y, w);
+                if (isOriented()) {
+                    sink.accept(y, x, w);
+                }
+            }
+        }
+    }
+}
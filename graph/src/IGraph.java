@@ -1,21 +1,66 @@
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 public interface IGraph {
     void loadFromFile(File file);
+    void saveBinary(File file) throws IOException;
+
+    static IGraph loadBinary(File file) throws IOException {
+        return BinaryGraphFormat.map(file);
+    }
+
     Set<Integer> listNodes();
+    boolean containsNode(int x);
     List<Pair> listEdges();
     List<Integer> listNeighbors(int x);
     public List<Pair> listNeighborsWithWeight(int x);
+    void forEachNeighbor(int x, IntConsumer action);
+    void forEachNeighbor(int x, NeighborConsumer action);
+    // the nodes with an edge into x and the weights of those edges; oriented graphs
+    // that keep no reverse adjacency refuse, CsrGraph.reverse gives one
+    default void forEachInNeighbor(int x, NeighborConsumer action) {
+        if (isOriented())
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " keeps no in-neighbors");
+        forEachNeighbor(x, action);
+    }
+    // stops at the first neighbor accepted by test and returns true, false if there is none
+    boolean anyNeighbor(int x, IntPredicate test);
     int numberOfNodes();
+    // one past the largest node id, the size of arrays indexed by node
+    int bound();
     int numberOfEdges();
+    // moves whenever the graph changes, so results computed at one version hold while it stays;
+    // graphs that never change keep 0
+    default long version() {
+        return 0;
+    }
+    boolean isOriented();
+    boolean isWeighted();
     int grad(int x);
     boolean areAdjacent(int x, int y);
     void insertEdge(Pair p);
     void insertEdge(int x, int y);
     void insertEdge(int x, int y, int weight);
+    // inserts src[i] -> dst[i] with weight w[i] for i < m; w may be null on unweighted graphs
+    default void insertEdges(int[] src, int[] dst, int[] w, int m) {
+        if (isWeighted() && w == null)
+            throw new RuntimeException("Weight omitted!");
+        for (int i = 0; i < m; i++) {
+            if (isWeighted()) {
+                insertEdge(src[i], dst[i], w[i]);
+            } else {
+                insertEdge(src[i], dst[i]);
+            }
+        }
+    }
+    default void insertEdges(int[] src, int[] dst, int[] w) {
+        insertEdges(src, dst, w, src.length);
+    }
     void deleteEdge(Pair p);
     void deleteEdge(int x, int y);
     void deleteNode(int x);
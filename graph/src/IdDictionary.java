@@ -0,0 +1,123 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps external long node ids to dense internal ids 0..size()-1, handed out in order
+ * of first appearance, and back. The forward direction is an open-addressing table
+ * with linear probing over a long[] of keys and an int[] of values (stored + 1, so 0
+ * marks a free slot); the reverse direction is a plain long[] indexed by internal id.
+ * Memory is proportional to the number of distinct ids, not to their magnitude.
+ * Not thread-safe: intern from one thread, then share for lookups.
+ */
+public class IdDictionary {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private long[] external;
+    private int size;
+    private int mask;
+
+    public IdDictionary(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, MIN_CAPACITY / 2) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.external = new long[Math.max(expected, MIN_CAPACITY)];
+        this.mask = capacity - 1;
+    }
+
+    public IdDictionary() {
+        this(MIN_CAPACITY);
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    // the internal id of key, assigning the next free one if key is new
+    public int intern(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        keys[slot] = key;
+        values[slot] = id + 1;
+        if (id == external.length) {
+            external = Arrays.copyOf(external, id + (id >> 1));
+        }
+        external[id] = key;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return id;
+    }
+
+    // the internal id of key, or -1 if it was never interned
+    public int get(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean contains(long key) {
+        return get(key) >= 0;
+    }
+
+    public long external(int id) {
+        if (id < 0 || id >= size)
+            throw new RuntimeException("Unknown internal id " + id);
+        return external[id];
+    }
+
+    public long[] external(int[] ids) {
+        long[] result = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = external(ids[i]);
+        }
+        return result;
+    }
+
+    public List<Long> external(List<Integer> ids) {
+        List<Long> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            result.add(external(id));
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+/**
+ * Lexicographic BFS in O(V + E) by partition refinement over primitive arrays.
+ * <p>
+ * The unvisited nodes sit in one array, split into consecutive classes kept as
+ * [start, end) ranges. Visiting v moves each unvisited neighbor w to the front of its
+ * class and into a new class just before it, so neighbors of v overtake non-neighbors
+ * and the next node to visit is always the next position in the array.
+ * <p>
+ * The reverse of a LexBFS order is a perfect elimination ordering exactly when the
+ * graph is chordal, which {@link #isChordal(IGraph)} checks in linear time.
+ */
+public class LexBfs {
+    private final IGraph graph;
+    private final int[] order;
+    private final int[] position;
+    private final int[] classOf;
+    private int[] classStart;
+    private int[] classEnd;
+    private int[] classSplit;
+    private int[] classStamp;
+    private int classes;
+
+    private LexBfs(IGraph graph, int s) {
+        this.graph = graph;
+        int bound = graph.bound();
+        int n = 0;
+        for (int x = 0; x < bound; x++) {
+            if (graph.containsNode(x)) n++;
+        }
+        this.order = new int[n];
+        this.position = new int[bound];
+        this.classOf = new int[bound];
+        this.classStart = new int[16];
+        this.classEnd = new int[16];
+        this.classSplit = new int[16];
+        this.classStamp = new int[16];
+
+        Arrays.fill(position, -1);
+        order[0] = s;
+        position[s] = 0;
+        int i = 1;
+        for (int x = 0; x < bound; x++) {
+            if (x != s && graph.containsNode(x)) {
+                order[i] = x;
+                position[x] = i++;
+            }
+        }
+        newClass(0, n);
+    }
+
+    private int newClass(int start, int end) {
+        if (classes == classStart.length) {
+            int capacity = classes * 2;
+            classStart = Arrays.copyOf(classStart, capacity);
+            classEnd = Arrays.copyOf(classEnd, capacity);
+            classSplit = Arrays.copyOf(classSplit, capacity);
+            classStamp = Arrays.copyOf(classStamp, capacity);
+        }
+        classStart[classes] = start;
+        classEnd[classes] = end;
+        classStamp[classes] = -1;
+        return classes++;
+    }
+
+    private void run() {
+        for (int i = 0; i < order.length; i++) {
+            int v = order[i];
+            classStart[classOf[v]]++;
+            int round = i;
+            graph.forEachNeighbor(v, w -> {
+                if (position[w] <= round) {
+                    return;
+                }
+                int c = classOf[w];
+                int split;
+                if (classStamp[c] != round) {
+                    // newClass may grow the arrays, so index them only after it returns
+                    split = newClass(classStart[c], classStart[c]);
+                    classStamp[c] = round;
+                    classSplit[c] = split;
+                } else {
+                    split = classSplit[c];
+                }
+
+                // swap w into the first slot of c, which then becomes the last slot of split
+                int p = classStart[c];
+                int u = order[p];
+                order[p] = w;
+                order[position[w]] = u;
+                position[u] = position[w];
+                position[w] = p;
+                classStart[c]++;
+                classEnd[split]++;
+                classOf[w] = split;
+            });
+        }
+    }
+
+    public static int[] order(IGraph graph, int s) {
+        if (!graph.containsNode(s))
+            throw new RuntimeException("Node " + s + " not in graph");
+        LexBfs search = new LexBfs(graph, s);
+        search.run();
+        return search.order;
+    }
+
+    public static boolean isChordal(IGraph graph) {
+        if (graph.isOriented())
+            throw new RuntimeException("Chordality is defined for undirected graphs");
+        int bound = graph.bound();
+        int s = 0;
+        while (s < bound && !graph.containsNode(s)) s++;
+        if (s == bound) {
+            return true;
+        }
+
+        int[] order = order(graph, s);
+        int[] position = new int[bound];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+
+        // parent[v]: the neighbor of v visited last before v
+        int[] parent = new int[bound];
+        Arrays.fill(parent, -1);
+        int[] count = new int[bound + 1];
+        for (int v : order) {
+            int[] best = {-1};
+            graph.forEachNeighbor(v, u -> {
+                if (position[u] < position[v] && (best[0] < 0 || position[u] > position[best[0]])) {
+                    best[0] = u;
+                }
+            });
+            parent[v] = best[0];
+        }
+
+        // every other earlier neighbor of v must be adjacent to parent[v]; group those checks by parent
+        for (int v : order) {
+            int p = parent[v];
+            if (p >= 0) {
+                graph.forEachNeighbor(v, u -> {
+                    if (u != p && position[u] < position[v]) count[p + 1]++;
+                });
+            }
+        }
+        for (int x = 0; x < bound; x++) {
+            count[x + 1] += count[x];
+        }
+        int[] required = new int[count[bound]];
+        int[] cursor = Arrays.copyOf(count, bound);
+        for (int v : order) {
+            int p = parent[v];
+            if (p >= 0) {
+                graph.forEachNeighbor(v, u -> {
+                    if (u != p && position[u] < position[v]) required[cursor[p]++] = u;
+                });
+            }
+        }
+
+        int[] mark = new int[bound];
+        Arrays.fill(mark, -1);
+        for (int p = 0; p < bound; p++) {
+            if (count[p] == count[p + 1]) {
+                continue;
+            }
+            int stamp = p;
+            graph.forEachNeighbor(p, u -> mark[u] = stamp);
+            for (int i = count[p]; i < count[p + 1]; i++) {
+                if (mark[required[i]] != p) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-negative longs with linear probing, -1 marking a free
+ * slot. Removal shifts the following run back instead of leaving markers, so probe
+ * sequences stay as short as if the removed key had never been there.
+ */
+public class LongHashSet {
+    private static final long FREE = -1;
+
+    private long[] keys;
+    private int size;
+    private int mask;
+
+    public LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 8) * 4 / 3) << 1;
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, FREE);
+    }
+
+    public LongHashSet() {
+        this(8);
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private int slot(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    public boolean contains(long key) {
+        return keys[slot(key)] == key;
+    }
+
+    // true if key was not in the set
+    public boolean add(long key) {
+        if (key < 0)
+            throw new RuntimeException("Negative key " + key);
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return false;
+        }
+        keys[slot] = key;
+        if (++size * 4L > keys.length * 3L) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    // true if key was in the set
+    public boolean remove(long key) {
+        int slot = slot(key);
+        if (keys[slot] != key) {
+            return false;
+        }
+        size--;
+        // move later keys of the run into the gap when the gap lies on their probe path
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    // grows the table at most once so that `additional` more keys fit without rehashing
+    public void reserve(int additional) {
+        long needed = (long) size + additional;
+        if (needed * 4 > keys.length * 3L) {
+            rehash(Integer.highestOneBit((int) Math.min(needed * 4 / 3, 1 << 29)) << 1);
+        }
+    }
+
+    // shrinks the table to the smallest capacity that holds the current keys
+    public void trim() {
+        int capacity = Integer.highestOneBit(Math.max(size, 8) * 4 / 3) << 1;
+        if (capacity < keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        keys = new long[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, FREE);
+        for (long key : old) {
+            if (key != FREE) {
+                keys[slot(key)] = key;
+            }
+        }
+    }
+}
@@ -1,31 +1,205 @@
 import java.io.*;
+import java.net.Socket;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Graph graph = new Graph();
-        try (BufferedReader reader = new BufferedReader(new FileReader("facebook_combined.txt"))) {
+        graph.loadFromFile(new File("facebook_combined.txt"), false);
+        System.out.println("Test1:");
+        System.out.println(graph.grad(7) == 20);
+        System.out.println("Test for number of edges");
+        System.out.println(graph.numberOfEdges() == 88234);
+
+        System.out.println("Test for batch insertion");
+        List<Pair> facebookEdges = graph.listEdges();
+        int[] from = new int[facebookEdges.size() * 2];
+        int[] to = new int[from.length];
+        for (int i = 0; i < facebookEdges.size(); i++) {
+            // every edge twice, the second time reversed
+            from[2 * i] = to[2 * i + 1] = facebookEdges.get(i).getA();
+            to[2 * i] = from[2 * i + 1] = facebookEdges.get(i).getB();
+        }
+        Graph batched = new Graph();
+        batched.insertEdges(from, to, null);
+        System.out.println(batched.numberOfEdges() == 88234 && batched.grad(7) == 20);
+        System.out.println(new HashSet<>(batched.listEdges()).equals(new HashSet<>(facebookEdges)));
+        Graph weightedBatch = new Graph(true, true);
+        weightedBatch.insertEdge(0, 1, 5);
+        weightedBatch.insertEdges(new int[]{0, 0, 1, 2}, new int[]{1, 1, 2, 0}, new int[]{7, 3, 4, 1});
+        System.out.println(weightedBatch.numberOfEdges() == 3
+                && weightedBatch.listNeighborsWithWeight(0).equals(List.of(new Pair(1, 3))));
+
+        System.out.println("Test for csr graph");
+        CsrGraph csr = CsrGraph.from(graph);
+        System.out.println(csr.grad(7) == 20);
+        System.out.println(csr.numberOfEdges() == 88234);
+        System.out.println(csr.bfs(0).size() == graph.bfs(0).size());
+        System.out.println(csr.areAdjacent(0, 1) && !csr.areAdjacent(1, 2));
+
+        System.out.println("Test for connectivity index");
+        System.out.println(graph.componentCount() == 1 && graph.connected(0, 4038));
+        Graph streamed = new Graph();
+        streamed.insertEdge(0, 1);
+        streamed.insertEdge(2, 3);
+        System.out.println(streamed.componentCount() == 2 && !streamed.connected(0, 3));
+        streamed.insertEdge(1, 2);
+        System.out.println(streamed.componentCount() == 1 && streamed.connected(0, 3));
 
-            String line = reader.readLine();
+        System.out.println("Test for deletion");
+        streamed.deleteEdge(1, 2);
+        System.out.println(streamed.numberOfNodes() == 4 && streamed.numberOfEdges() == 2 && !streamed.connected(0, 3));
+        streamed.insertEdge(1, 3);
+        streamed.contrEdge(new Pair(1, 3));
+        System.out.println(!streamed.containsNode(3) && streamed.areAdjacent(1, 2) && streamed.numberOfEdges() == 2);
+        System.out.println(!streamed.connected(1, 3) && streamed.componentCount() == 1);
+        streamed.deleteNode(1);
+        streamed.compact();
+        System.out.println(streamed.numberOfNodes() == 2 && streamed.numberOfEdges() == 0);
 
-            while (line != null) {
-                // read next line
-                String[] number = line.split(" ");
-                Pair p = new Pair(Integer.valueOf(number[0]), Integer.valueOf(number[1]));
-                graph.insertEdge(p);
-                line = reader.readLine();
+        System.out.println("Test for concurrent graph");
+        ConcurrentGraph shared = ConcurrentGraph.of(graph);
+        System.out.println(shared.numberOfEdges() == 88234 && shared.bfs(0).size() == graph.bfs(0).size());
+        try (ConcurrentGraph.Snapshot before = shared.snapshot()) {
+            Thread writer = new Thread(() -> {
+                for (int x = 0; x < 1000; x++) {
+                    shared.insertEdge(x, 5000 + x);
+                }
+                shared.deleteNode(0);
+            });
+            writer.start();
+            int edgesBefore = before.listEdges().size();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+            System.out.println(edgesBefore == 88234 && before.areAdjacent(0, 1) && before.bfs(0).size() == 4039);
+            System.out.println(shared.numberOfEdges() == 88234 + 1000 - graph.grad(0) - 1 && !shared.containsNode(0));
+        }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        System.out.println("Test for graph snapshot");
+        Graph live = new Graph();
+        graph.listEdges().forEach(live::insertEdge);
+        Graph pinned = live.snapshot();
+        for (int x = 0; x < 1000; x++) {
+            live.insertEdge(x, 5000 + x);
         }
-        System.out.println("Test1:");
-        System.out.println(graph.grad(7) == 20);
-        System.out.println("Test for number of edges");
-        System.out.println(graph.numberOfEdges() == 88234);
+        live.deleteNode(0);
+        live.compact();
+        System.out.println(pinned.numberOfEdges() == 88234 && pinned.areAdjacent(0, 1) && pinned.grad(7) == 20);
+        System.out.println(pinned.bfs(0).size() == 4039 && pinned.algorithmS().size() == 1);
+        System.out.println(!live.containsNode(0) && live.numberOfEdges() == 88234 + 1000 - graph.grad(0) - 1);
+        boolean readOnly = false;
+        try {
+            pinned.insertEdge(0, 1);
+        } catch (UnsupportedOperationException e) {
+            readOnly = true;
+        }
+        System.out.println(readOnly);
+
+        System.out.println("Test for query cache");
+        QueryCache cache = new QueryCache(live, 3 * (96 + 4L * live.bound()));
+        QueryCache.Distances depths = cache.bfs(1);
+        System.out.println(cache.bfs(1) == depths && cache.hitRatio() == 0.5
+                && depths.distance(4038) == ParallelBfs.run(live, 1).depth(4038) && depths.distance(4038) > 1);
+        cache.bfs(2);
+        cache.bfs(3);
+        cache.bfs(4);
+        System.out.println(cache.size() == 3 && cache.evictions() == 1 && cache.bytes() <= cache.maxBytes());
+        live.insertEdge(1, 4038);
+        System.out.println(cache.bfs(1).distance(4038) == 1 && cache.invalidations() == 1 && cache.size() == 1);
+        CsrGraph cachedRmat = GraphGenerator.rmat(12, 8, 5).weighted(100).toCsr();
+        QueryCache weightedCache = new QueryCache(cachedRmat, 1 << 20);
+        long[] exact = Dijkstra.run(cachedRmat, 0).distances();
+        boolean sameDistances = true;
+        for (int x = 0; x < exact.length; x++) {
+            sameDistances &= weightedCache.dijkstra(0).distance(x) == exact[x];
+        }
+        System.out.println(sameDistances && weightedCache.misses() == 1 && weightedCache.hits() == exact.length - 1);
+        ConcurrentGraph counted = new ConcurrentGraph();
+        counted.insertEdge(0, 1);
+        counted.insertEdge(1, 2);
+        long countedVersion = counted.version();
+        counted.addNode(1);
+        counted.insertEdge(1, 0);
+        counted.deleteEdge(0, 2);
+        counted.deleteNode(7);
+        System.out.println(counted.version() == countedVersion);
+        QueryCache concurrentCache = new QueryCache(counted, 1 << 10);
+        QueryCache.Distances fromZero = concurrentCache.bfs(0);
+        System.out.println(fromZero.distance(2) == 2 && concurrentCache.bfs(0) == fromZero);
+        counted.insertEdge(0, 2);
+        System.out.println(concurrentCache.bfs(0).distance(2) == 1 && concurrentCache.invalidations() == 1);
+        long[] reported = {5};
+        Graph rewound = new Graph(false, false) {
+            @Override
+            public long version() {
+                return reported[0];
+            }
+        };
+        rewound.insertEdge(0, 1);
+        QueryCache forward = new QueryCache(rewound, 1 << 10);
+        QueryCache.Distances atFive = forward.bfs(0);
+        reported[0] = 4;
+        boolean olderMissed = forward.bfs(0) != atFive && forward.size() == 1 && forward.invalidations() == 0;
+        reported[0] = 5;
+        System.out.println(olderMissed && forward.bfs(0) == atFive && forward.hits() == 1);
+
+        System.out.println("Test for query server");
+        try (QueryServer server = new QueryServer(graph);
+             Socket client = new Socket("localhost", server.start(0))) {
+            BufferedWriter requests = new BufferedWriter(new OutputStreamWriter(client.getOutputStream()));
+            BufferedReader replies = new BufferedReader(new InputStreamReader(client.getInputStream()));
+            requests.write("ADJ 0 1\nADJ 1 2\nDEG 7\nDEPTH 0 0\nDEPTH 0 4038\nDIST 0 1\nDEG -5\nFOO\n");
+            requests.flush();
+            List<String> answers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                answers.add(replies.readLine());
+            }
+            System.out.println(answers.subList(0, 4).equals(List.of("1", "0", "20", "0")));
+            System.out.println(Integer.parseInt(answers.get(4)) == ParallelBfs.run(graph, 0).depths()[4038]
+                    && answers.subList(5, 8).stream().allMatch(answer -> answer.startsWith("ERR")));
+        }
+
+        System.out.println("Test for direction optimizing bfs");
+        BfsResult optimized = DirectionOptimizingBfs.run(graph, 0);
+        BfsResult topDown = ParallelBfs.run(graph, 0);
+        System.out.println(Arrays.equals(optimized.depths(), topDown.depths()));
+        System.out.println(optimized.edgesVisited() < topDown.edgesVisited());
+        List<Integer> dobfs = graph.dobfs(0);
+        System.out.println(dobfs.size() == 4039 && new HashSet<>(dobfs).equals(new HashSet<>(graph.bfs(0))));
+        Graph directed = new Graph(true, false);
+        graph.listEdges().forEach(directed::insertEdge);
+        CsrGraph directedCsr = CsrGraph.from(directed);
+        int[] directedDepths = ParallelBfs.run(directedCsr, 0).depths();
+        System.out.println(Arrays.equals(DirectionOptimizingBfs.run(directedCsr, 0).depths(), directedDepths)
+                && Arrays.equals(DirectionOptimizingBfs.run(directedCsr, CsrGraph.reverse(directedCsr), 0,
+                DirectionOptimizingBfs.ALPHA, DirectionOptimizingBfs.BETA).depths(), directedDepths));
+
+        System.out.println("Test for multi-source bfs");
+        int[] sources = new int[100];
+        Arrays.setAll(sources, i -> i * 40);
+        int[][] hops = MultiSourceBfs.run(graph, sources);
+        boolean sameDepths = true;
+        for (int i = 0; i < sources.length; i++) {
+            sameDepths &= Arrays.equals(hops[i], ParallelBfs.run(graph, sources[i]).depths());
+        }
+        System.out.println(sameDepths);
+
+        System.out.println("Test for binary format");
+        File binary = File.createTempFile("facebook", ".graph");
+        binary.deleteOnExit();
+        graph.saveBinary(binary);
+        IGraph mapped = IGraph.loadBinary(binary);
+        System.out.println(mapped.numberOfEdges() == graph.numberOfEdges() && mapped.listNodes().equals(graph.listNodes()));
+        System.out.println(new HashSet<>(mapped.listEdges()).equals(new HashSet<>(graph.listEdges())));
 
 
         Graph g = new Graph(true, false);
@@ -70,6 +244,16 @@ public class Main {
         g.insertEdge(3, 6);
         System.out.println("\nTest for lexBFS");
         g.lexBfs(8).forEach(System.out::println);
+        System.out.println("Test for chordality");
+        System.out.println(g.isChordal());
+        Graph chordal = new Graph();
+        chordal.insertEdge(1, 2);
+        chordal.insertEdge(2, 3);
+        chordal.insertEdge(3, 4);
+        chordal.insertEdge(4, 1);
+        System.out.println(!chordal.isChordal());
+        chordal.insertEdge(1, 3);
+        System.out.println(chordal.isChordal());
 
 
         g = new Graph(false, true);
@@ -87,6 +271,12 @@ public class Main {
         List<Integer> dist = g.disjktra(0);
         System.out.println(dist);
         System.out.println(dist.get(4).equals(20));
+        ShortestPathTree tree = Dijkstra.run(g, 4);
+        System.out.println(tree.distance(0) == 20 && tree.pathTo(0).equals(List.of(4, 5, 2, 0)));
+        System.out.println(g.deltaStepping(0).equals(dist) && DeltaStepping.run(g, 4, 3).pathTo(0).equals(List.of(4, 5, 2, 0)));
+        CsrGraph weightedRmat = GraphGenerator.rmat(14, 8, 5).weighted(100).toCsr();
+        System.out.println(Arrays.equals(DeltaStepping.run(weightedRmat, 0).distances(),
+                Dijkstra.run(weightedRmat, 0).distances()));
 
 
         g = new Graph(false, true);
@@ -112,6 +302,28 @@ public class Main {
         List<Integer> dist2 = g.aStar(0, 6, h);
         System.out.println(dist2);
         System.out.println(dist2.get(6).equals(17));
+        System.out.println(AStar.run(g, 0, 6, h::get).pathTo(6).equals(List.of(0, 2, 3, 4, 6)));
+
+        System.out.println("\nTest for bidirectional search");
+        PathResult meet = g.bidirectionalDijkstra(0, 6);
+        System.out.println(meet);
+        System.out.println(meet.distance() == 17 && meet.path().equals(List.of(0, 2, 3, 4, 6)));
+        Graph lattice = GraphGenerator.grid(200, 200, 3).oriented(true).weighted(10).toGraph();
+        int corner = 200 * 200 - 1;
+        long latticeDistance = Dijkstra.run(lattice, 0).distance(corner);
+        PathResult plain = lattice.bidirectionalDijkstra(0, corner);
+        PathResult guided = lattice.bidirectionalAStar(0, corner,
+                x -> 2 * 199 - x / 200 - x % 200, x -> x / 200 + x % 200);
+        System.out.println(plain.distance() == latticeDistance && guided.distance() == latticeDistance);
+        System.out.println(guided.nodesSettled() < plain.nodesSettled() && plain.nodesSettled() < lattice.numberOfNodes());
+        boolean timedOut = false;
+        try {
+            BidirectionalSearch.run(lattice, 0, corner, System.nanoTime());
+        } catch (RuntimeException e) {
+            timedOut = e.getMessage().equals("timeout");
+        }
+        long later = System.nanoTime() + 60_000_000_000L;
+        System.out.println(timedOut && BidirectionalSearch.run(lattice, 0, corner, later).distance() == latticeDistance);
 
         g = new Graph(true, false);
 
@@ -139,6 +351,60 @@ public class Main {
         assert pdfs.get(3) == 0 || pdfs.get(3) == 3 : "fourth dfs element is not 0 or 3";
         g = new Graph(true, false);
         g.loadFromFile(new File("./graphExample.txt"));
+
+        System.out.println("\nTest for csr graph from file");
+        CsrGraph csrExample = CsrGraph.fromFile(new File("./graphExample.txt"), true, false, true);
+        System.out.println(new HashSet<>(csrExample.listEdges()).equals(new HashSet<>(g.listEdges())));
+        System.out.println(csrExample.numberOfEdges() == 6 && csrExample.numberOfNodes() == 5);
+        File binaryExample = File.createTempFile("graphExample", ".graph");
+        binaryExample.deleteOnExit();
+        g.saveBinary(binaryExample);
+        System.out.println(new HashSet<>(IGraph.loadBinary(binaryExample).listEdges()).equals(new HashSet<>(g.listEdges())));
+
+        System.out.println("\nTest for id dictionary");
+        File sparseExample = File.createTempFile("sparseExample", ".txt");
+        sparseExample.deleteOnExit();
+        Files.writeString(sparseExample.toPath(), "9000000000 42\n42 7\n7 9000000000\n7 123456789012\n");
+        IdDictionary ids = new IdDictionary();
+        CsrGraph sparse = CsrGraph.fromFile(sparseExample, false, false, false, ids);
+        System.out.println(sparse.bound() == 4 && sparse.numberOfEdges() == 4);
+        System.out.println(ids.external(sparse.bfs(ids.get(123456789012L))));
+        System.out.println(ids.get(5) == -1);
+
+        System.out.println("\nTest for edge list header");
+        File edgeList = File.createTempFile("edgeList", ".txt");
+        edgeList.deleteOnExit();
+        Files.writeString(edgeList.toPath(), "0 1\n1 2\n");
+        System.out.println(CsrGraph.fromFile(edgeList, false, false, false).listEdges()
+                .equals(List.of(new Pair(0, 1), new Pair(1, 2))));
+        Files.writeString(edgeList.toPath(), "5 2\n0 1\n1 2\n");
+        System.out.println(CsrGraph.fromFile(edgeList, false, false, true).listEdges()
+                .equals(List.of(new Pair(0, 1), new Pair(1, 2))));
+        Files.writeString(edgeList.toPath(), "0 1 4\n1 2 3\n");
+        System.out.println(CsrGraph.fromFile(edgeList, false, true, false).numberOfEdges() == 2);
+        Files.writeString(edgeList.toPath(), "3 2\n0 1 4\n1 2 3\n");
+        Graph weightedList = new Graph(false, true);
+        weightedList.loadFromFile(edgeList);
+        System.out.println(weightedList.numberOfEdges() == 2 && weightedList.listNeighborsWithWeight(1).contains(new Pair(2, 3)));
+        Files.writeString(edgeList.toPath(), "5 9\n0 1\n1 2\n");
+        boolean countChecked = false;
+        try {
+            CsrGraph.fromFile(edgeList, false, false, true);
+        } catch (RuntimeException e) {
+            countChecked = true;
+        }
+        System.out.println(countChecked);
+
+        System.out.println("\nTest for generator");
+        GraphGenerator grid = GraphGenerator.grid(3, 4, 1);
+        System.out.println(grid.toGraph().numberOfEdges() == 17 && grid.toCsr().numberOfNodes() == 12);
+        GraphGenerator rmat = GraphGenerator.rmat(12, 8, 1).weighted(100);
+        File generated = File.createTempFile("rmat", ".txt");
+        generated.deleteOnExit();
+        rmat.write(generated);
+        CsrGraph rmatFromFile = CsrGraph.fromFile(generated, false, true, false);
+        System.out.println(new HashSet<>(rmatFromFile.listEdges()).equals(new HashSet<>(rmat.toCsr().listEdges())));
+        System.out.println(GraphGenerator.barabasiAlbert(1000, 3, 7).toCsr().numberOfNodes() == 1000);
         List<Collection<Integer>> components = null;
 
         System.out.println("\n Test for algorithm A");
@@ -156,6 +422,11 @@ public class Main {
         components.forEach(System.out::println);
         System.out.println(testComponents(components));
         //writeToFile(new File("./out.txt"), components.get(0));
+
+        if (Metrics.ENABLED) {
+            System.out.println("\nMetrics");
+            System.out.print(Metrics.report());
+        }
     }
 
     private static boolean testComponents(List<Collection<Integer>> components) {
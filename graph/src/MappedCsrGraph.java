@@ -0,0 +1,40 @@
+import java.nio.IntBuffer;
+import java.util.BitSet;
+
+/**
+ * CSR graph whose arrays stay in a memory-mapped file written by
+ * {@link BinaryGraphFormat}; nothing is copied onto the heap except the node bitmap.
+ */
+public class MappedCsrGraph extends AbstractCsrGraph {
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+
+    MappedCsrGraph(IntBuffer offsets, IntBuffer targets, IntBuffer weights, BitSet nodes,
+                   int numberOfEdges, boolean oriented, boolean weighted) {
+        super(nodes, numberOfEdges, oriented, weighted);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int bound() {
+        return offsets.limit() - 1;
+    }
+
+    @Override
+    public int offset(int x) {
+        return offsets.get(x);
+    }
+
+    @Override
+    public int target(int i) {
+        return targets.get(i);
+    }
+
+    @Override
+    public int weight(int i) {
+        return weights == null ? 0 : weights.get(i);
+    }
+}
@@ -0,0 +1,287 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Opt-in counters and phase timers for the traversal, shortest-path and component
+ * algorithms, switched on with -Dgraph.metrics=true.
+ * <p>
+ * ENABLED is a static final constant, so with metrics off the JIT drops every
+ * {@code if (Metrics.ENABLED)} block and the hot loops compile to the same code as
+ * without instrumentation. With metrics on, every run counts into its own Run from
+ * one thread; finish() folds it into per-algorithm totals, keeps it as the last run
+ * of its algorithm and commits it as a graph.Algorithm JFR event.
+ * <p>
+ * Every QueryCache registers itself as well: report() lists its hit ratio and
+ * memory, and a graph.QueryCache JFR event samples them once a second.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("graph.metrics");
+
+    public enum Counter {
+        NODES_VISITED, EDGES_SCANNED, EDGES_RELAXED, HEAP_PUSHES, HEAP_POPS, HEAP_DECREASES, ITERATIONS
+    }
+
+    private static final Map<String, Totals> TOTALS = new ConcurrentHashMap<>();
+    private static final Map<String, Run> LAST = new ConcurrentHashMap<>();
+    // weak, so that registering a cache does not keep it alive
+    private static final Set<QueryCache> CACHES = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(CacheEvent.class, Metrics::sampleCaches);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    // reports the cache through report() and the graph.QueryCache event; nothing when metrics are off
+    public static void register(QueryCache cache) {
+        if (ENABLED) {
+            CACHES.add(cache);
+        }
+    }
+
+    private static List<QueryCache> caches() {
+        synchronized (CACHES) {
+            return new ArrayList<>(CACHES);
+        }
+    }
+
+    private static void sampleCaches() {
+        for (QueryCache cache : caches()) {
+            CacheEvent event = new CacheEvent();
+            event.hits = cache.hits();
+            event.misses = cache.misses();
+            event.hitRatio = cache.hitRatio();
+            event.entries = cache.size();
+            event.bytes = cache.bytes();
+            event.maxBytes = cache.maxBytes();
+            event.evictions = cache.evictions();
+            event.invalidations = cache.invalidations();
+            event.commit();
+        }
+    }
+
+    // a new run, or null when metrics are off; callers only touch it under if (Metrics.ENABLED)
+    public static Run start(String algorithm) {
+        return ENABLED ? new Run(algorithm) : null;
+    }
+
+    public static Totals totals(String algorithm) {
+        return TOTALS.get(algorithm);
+    }
+
+    public static Run last(String algorithm) {
+        return LAST.get(algorithm);
+    }
+
+    public static void reset() {
+        TOTALS.clear();
+        LAST.clear();
+    }
+
+    // one line per algorithm with its run count, time and non-zero counters
+    public static String report() {
+        StringBuilder result = new StringBuilder();
+        new TreeMap<>(TOTALS).forEach((algorithm, totals) -> result.append(algorithm).append(": ")
+                .append(totals).append('\n'));
+        for (QueryCache cache : caches()) {
+            result.append("query cache: ").append(cache).append('\n');
+        }
+        return result.toString();
+    }
+
+    public static final class Run {
+        private final String algorithm;
+        private final long start = System.nanoTime();
+        private final long[] counters = new long[Counter.values().length];
+        private final Map<String, Long> phases = new LinkedHashMap<>();
+        private final AlgorithmEvent event = new AlgorithmEvent();
+        private int[] frontier = new int[16];
+        private int levels;
+        private String phase;
+        private long phaseStart;
+        private long wallNanos;
+
+        private Run(String algorithm) {
+            this.algorithm = algorithm;
+            event.begin();
+        }
+
+        public void add(Counter counter, long n) {
+            counters[counter.ordinal()] += n;
+        }
+
+        // size of the next BFS level
+        public void frontier(int size) {
+            if (levels == frontier.length) {
+                frontier = Arrays.copyOf(frontier, levels * 2);
+            }
+            frontier[levels++] = size;
+        }
+
+        // closes the running phase, if any, and starts the named one
+        public void phase(String name) {
+            long now = System.nanoTime();
+            if (phase != null) {
+                phases.merge(phase, now - phaseStart, Long::sum);
+            }
+            phase = name;
+            phaseStart = now;
+        }
+
+        public void finish() {
+            phase(null);
+            wallNanos = System.nanoTime() - start;
+            TOTALS.computeIfAbsent(algorithm, a -> new Totals()).add(this);
+            LAST.put(algorithm, this);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.algorithm = algorithm;
+                event.nodesVisited = count(Counter.NODES_VISITED);
+                event.edgesScanned = count(Counter.EDGES_SCANNED);
+                event.edgesRelaxed = count(Counter.EDGES_RELAXED);
+                event.heapPushes = count(Counter.HEAP_PUSHES);
+                event.heapPops = count(Counter.HEAP_POPS);
+                event.heapDecreases = count(Counter.HEAP_DECREASES);
+                event.iterations = count(Counter.ITERATIONS);
+                event.levels = levels;
+                event.commit();
+            }
+        }
+
+        public String algorithm() {
+            return algorithm;
+        }
+
+        public long count(Counter counter) {
+            return counters[counter.ordinal()];
+        }
+
+        public int[] frontierSizes() {
+            return Arrays.copyOf(frontier, levels);
+        }
+
+        // nanoseconds per phase, in the order the phases first ran
+        public Map<String, Long> phases() {
+            return phases;
+        }
+
+        public long wallNanos() {
+            return wallNanos;
+        }
+    }
+
+    public static final class Totals {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder[] counters = new LongAdder[Counter.values().length];
+        private final Map<String, LongAdder> phases = new ConcurrentHashMap<>();
+
+        private Totals() {
+            Arrays.setAll(counters, i -> new LongAdder());
+        }
+
+        private void add(Run run) {
+            runs.increment();
+            wallNanos.add(run.wallNanos);
+            for (int i = 0; i < counters.length; i++) {
+                counters[i].add(run.counters[i]);
+            }
+            run.phases.forEach((name, nanos) -> phases.computeIfAbsent(name, n -> new LongAdder()).add(nanos));
+        }
+
+        public long runs() {
+            return runs.sum();
+        }
+
+        public long wallNanos() {
+            return wallNanos.sum();
+        }
+
+        public long count(Counter counter) {
+            return counters[counter.ordinal()].sum();
+        }
+
+        public long phaseNanos(String phase) {
+            LongAdder nanos = phases.get(phase);
+            return nanos == null ? 0 : nanos.sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder();
+            result.append(runs()).append(" runs, ").append(String.format("%.3f ms", wallNanos() / 1e6));
+            for (Counter counter : Counter.values()) {
+                if (count(counter) != 0) {
+                    result.append(", ").append(counter.name().toLowerCase()).append(' ').append(count(counter));
+                }
+            }
+            new TreeMap<>(phases).forEach((name, nanos) ->
+                    result.append(", ").append(name).append(String.format(" %.3f ms", nanos.sum() / 1e6)));
+            return result.toString();
+        }
+    }
+
+    @Name("graph.Algorithm")
+    @Label("Graph algorithm")
+    @Category("Graph")
+    @Description("One run of a graph algorithm with its work counters")
+    static class AlgorithmEvent extends jdk.jfr.Event {
+        @Label("Algorithm")
+        String algorithm;
+        @Label("Nodes visited")
+        long nodesVisited;
+        @Label("Edges scanned")
+        long edgesScanned;
+        @Label("Edges relaxed")
+        long edgesRelaxed;
+        @Label("Heap pushes")
+        long heapPushes;
+        @Label("Heap pops")
+        long heapPops;
+        @Label("Heap decrease-keys")
+        long heapDecreases;
+        @Label("Iterations")
+        long iterations;
+        @Label("BFS levels")
+        int levels;
+    }
+
+    @Name("graph.QueryCache")
+    @Label("Query cache")
+    @Category("Graph")
+    @Description("Hit ratio and memory of one QueryCache")
+    @Period("1 s")
+    static class CacheEvent extends jdk.jfr.Event {
+        @Label("Hits")
+        long hits;
+        @Label("Misses")
+        long misses;
+        @Label("Hit ratio")
+        double hitRatio;
+        @Label("Entries")
+        int entries;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+        @Label("Maximum bytes")
+        @DataAmount
+        long maxBytes;
+        @Label("Evictions")
+        long evictions;
+        @Label("Invalidations")
+        long invalidations;
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Many BFS traversals run together (Then et al., "The More the Merrier"). Every node
+ * owns k = ceil(sources / 64) words per bitset: bit i of seen says source i has
+ * reached the node, bit i of visit that the node is in source i's current frontier.
+ * A node in any frontier is expanded once per level for all of them by OR-ing its
+ * visit words into its neighbors' next words, so a batch reads each adjacency list
+ * once per level instead of once per source.
+ * <p>
+ * A batch runs on the calling thread; independent batches can run concurrently.
+ */
+public class MultiSourceBfs {
+
+    private static class Expand implements IntConsumer {
+        private final long[] visit;
+        private final long[] next;
+        private final int words;
+        private int from;
+        private long edges;
+
+        private Expand(long[] visit, long[] next, int words) {
+            this.visit = visit;
+            this.next = next;
+            this.words = words;
+        }
+
+        @Override
+        public void accept(int y) {
+            if (Metrics.ENABLED) edges++;
+            int to = y * words;
+            for (int w = 0; w < words; w++) {
+                next[to + w] |= visit[from + w];
+            }
+        }
+    }
+
+    // distances[i][x]: hops from sources[i] to x, -1 when x is unreachable or not a node
+    public static int[][] run(IGraph graph, int[] sources) {
+        int bound = graph.bound();
+        int k = sources.length;
+        int words = (k + 63) >>> 6;
+        if ((long) bound * words > Integer.MAX_VALUE)
+            throw new RuntimeException("Batch of " + k + " sources too large for " + bound + " nodes");
+
+        int[][] distances = new int[k][bound];
+        long[] seen = new long[bound * words];
+        long[] visit = new long[bound * words];
+        long[] next = new long[bound * words];
+        for (int i = 0; i < k; i++) {
+            int s = sources[i];
+            if (!graph.containsNode(s))
+                throw new RuntimeException("Node " + s + " not in graph");
+            Arrays.fill(distances[i], -1);
+            distances[i][s] = 0;
+            seen[s * words + (i >>> 6)] |= 1L << i;
+            visit[s * words + (i >>> 6)] |= 1L << i;
+        }
+
+        Metrics.Run metrics = Metrics.start("msBfs");
+        Expand expand = new Expand(visit, next, words);
+        int active = 0;
+        for (int x = 0; x < bound; x++) {
+            if (any(visit, x * words, words)) active++;
+        }
+
+        for (int level = 1; active > 0; level++) {
+            if (Metrics.ENABLED) metrics.frontier(active);
+            for (int x = 0; x < bound; x++) {
+                if (any(visit, x * words, words)) {
+                    expand.from = x * words;
+                    graph.forEachNeighbor(x, expand);
+                }
+            }
+
+            // the new frontier is what arrived this level and had not been seen before
+            active = 0;
+            for (int x = 0; x < bound; x++) {
+                boolean reached = false;
+                for (int w = 0, i = x * words; w < words; w++, i++) {
+                    long fresh = next[i] & ~seen[i];
+                    next[i] = 0;
+                    visit[i] = fresh;
+                    if (fresh != 0) {
+                        reached = true;
+                        seen[i] |= fresh;
+                        for (long bits = fresh; bits != 0; bits &= bits - 1) {
+                            distances[(w << 6) + Long.numberOfTrailingZeros(bits)][x] = level;
+                        }
+                    }
+                }
+                if (reached) active++;
+            }
+        }
+        if (Metrics.ENABLED) {
+            metrics.add(Metrics.Counter.EDGES_SCANNED, expand.edges);
+            metrics.finish();
+        }
+        return distances;
+    }
+
+    private static boolean any(long[] bits, int from, int words) {
+        for (int w = 0; w < words; w++) {
+            if (bits[from + w] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
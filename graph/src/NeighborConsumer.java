@@ -0,0 +1,8 @@
+/**
+ * Receives the neighbors of a node one at a time, together with the weight of
+ * the connecting edge (0 in unweighted graphs), without boxing them.
+ */
+@FunctionalInterface
+public interface NeighborConsumer {
+    void accept(int target, int weight);
+}
@@ -0,0 +1,40 @@
+import java.util.List;
+
+/**
+ * Answer to a point-to-point query: the length of a shortest path and its nodes, plus
+ * how many nodes the search settled to find it.
+ */
+public class PathResult {
+    private final long distance;
+    private final List<Integer> path;
+    private final int settled;
+
+    public PathResult(long distance, List<Integer> path, int settled) {
+        this.distance = distance;
+        this.path = path;
+        this.settled = settled;
+    }
+
+    // ShortestPathTree.UNREACHABLE when there is no path
+    public long distance() {
+        return distance;
+    }
+
+    public boolean isReachable() {
+        return distance != ShortestPathTree.UNREACHABLE;
+    }
+
+    // nodes from the source to the target, or an empty list when there is no path
+    public List<Integer> path() {
+        return path;
+    }
+
+    public int nodesSettled() {
+        return settled;
+    }
+
+    @Override
+    public String toString() {
+        return isReachable() ? distance + " " + path : "unreachable";
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-source results kept in front of a graph, for traffic that keeps asking
+ * about the same sources. Entries are the hop or weighted distances from one
+ * source, keyed by (algorithm, source) and stored as int arrays, or long arrays
+ * when a distance does not fit in an int. The cache is bounded by the bytes of
+ * those arrays and evicts the least recently used entry first.
+ * <p>
+ * Every entry belongs to the graph version it was computed at. The first lookup
+ * after the version moves drops the whole cache, so insertEdge, deleteEdge and
+ * deleteNode invalidate it without having to know about it. The cache only moves
+ * forward: a lookup that read an older version than the cache holds, because it
+ * raced a newer one, is a plain miss and leaves the cache alone. Lookups may come from
+ * many threads if the graph tolerates concurrent readers. Results are computed
+ * outside the lock, and one computed while the graph changed is returned but not kept.
+ * On a ConcurrentGraph they are computed on a snapshot and belong to its version, so
+ * a write that is still being applied never ends up in the cache.
+ * <p>
+ * With -Dgraph.metrics=true the hit ratio and memory also show up in
+ * Metrics.report() and as graph.QueryCache JFR events.
+ */
+public class QueryCache {
+    // the map entry, the Distances object and the array header
+    private static final long ENTRY_BYTES = 96;
+
+    public enum Algorithm {
+        BFS, DIJKSTRA
+    }
+
+    // distances from one source; read-only, shared by every caller that hits it
+    public static final class Distances {
+        private final int source;
+        private final int[] small;
+        private final long[] large;
+
+        private Distances(int source, int[] small, long[] large) {
+            this.source = source;
+            this.small = small;
+            this.large = large;
+        }
+
+        // -1 marks unreachable nodes in BFS depths
+        private static Distances ofDepths(int source, int[] depths) {
+            return new Distances(source, depths, null);
+        }
+
+        // narrowed to ints, -1 for unreachable, when every finite distance fits
+        private static Distances ofDistances(int source, long[] distances) {
+            int[] small = new int[distances.length];
+            for (int x = 0; x < distances.length; x++) {
+                long d = distances[x];
+                if (d == ShortestPathTree.UNREACHABLE) {
+                    small[x] = -1;
+                } else if (d <= Integer.MAX_VALUE) {
+                    small[x] = (int) d;
+                } else {
+                    return new Distances(source, null, distances);
+                }
+            }
+            return new Distances(source, small, null);
+        }
+
+        public int source() {
+            return source;
+        }
+
+        // ShortestPathTree.UNREACHABLE for unreachable nodes and ids outside the graph
+        public long distance(int x) {
+            if (small != null) {
+                return x >= 0 && x < small.length && small[x] >= 0 ? small[x] : ShortestPathTree.UNREACHABLE;
+            }
+            return x >= 0 && x < large.length ? large[x] : ShortestPathTree.UNREACHABLE;
+        }
+
+        public boolean isReachable(int x) {
+            return distance(x) != ShortestPathTree.UNREACHABLE;
+        }
+
+        public int size() {
+            return small != null ? small.length : large.length;
+        }
+
+        public long bytes() {
+            return ENTRY_BYTES + (small != null ? 4L * small.length : 8L * large.length);
+        }
+    }
+
+    private final IGraph graph;
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Distances> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long version;
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public QueryCache(IGraph graph, long maxBytes) {
+        if (maxBytes < 0)
+            throw new RuntimeException("Negative cache size " + maxBytes);
+        this.graph = graph;
+        this.maxBytes = maxBytes;
+        this.version = graph.version();
+        Metrics.register(this);
+    }
+
+    public Distances bfs(int source) {
+        return get(Algorithm.BFS, source);
+    }
+
+    public Distances dijkstra(int source) {
+        return get(Algorithm.DIJKSTRA, source);
+    }
+
+    public Distances get(Algorithm algorithm, int source) {
+        long key = ((long) algorithm.ordinal() << 32) | (source & 0xffffffffL);
+        long current = graph.version();
+        synchronized (this) {
+            invalidateIfStale(current);
+            Distances cached = current == version ? entries.get(key) : null;
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        Distances computed;
+        long computedAt;
+        if (graph instanceof ConcurrentGraph) {
+            try (ConcurrentGraph.Snapshot snapshot = ((ConcurrentGraph) graph).snapshot()) {
+                computedAt = snapshot.version();
+                computed = compute(snapshot, algorithm, source);
+            }
+        } else {
+            computedAt = current;
+            computed = compute(graph, algorithm, source);
+        }
+        synchronized (this) {
+            invalidateIfStale(graph.version());
+            if (version == computedAt) {
+                put(key, computed);
+            }
+        }
+        return computed;
+    }
+
+    private static Distances compute(IGraph graph, Algorithm algorithm, int source) {
+        switch (algorithm) {
+            case BFS:
+                return Distances.ofDepths(source, ParallelBfs.run(graph, source).depths());
+            case DIJKSTRA:
+                return Distances.ofDistances(source, Dijkstra.run(graph, source).distances());
+            default:
+                throw new RuntimeException("Unknown algorithm " + algorithm);
+        }
+    }
+
+    private void invalidateIfStale(long current) {
+        if (current > version) {
+            entries.clear();
+            bytes = 0;
+            version = current;
+            invalidations.increment();
+        }
+    }
+
+    // an entry larger than the whole cache is not kept
+    private void put(long key, Distances distances) {
+        if (distances.bytes() > maxBytes) {
+            return;
+        }
+        Distances replaced = entries.put(key, distances);
+        if (replaced != null) {
+            bytes -= replaced.bytes();
+        }
+        bytes += distances.bytes();
+        Iterator<Map.Entry<Long, Distances>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // hits over lookups, 0 before the first lookup
+    public double hitRatio() {
+        long hits = hits();
+        long lookups = hits + misses();
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    // times a version change dropped the cache
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses, hit ratio %.3f, %d entries, %d of %d bytes, %d evictions, %d invalidations",
+                hits(), misses(), hitRatio(), size(), bytes(), maxBytes, evictions(), invalidations());
+    }
+}
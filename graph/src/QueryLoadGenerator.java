@@ -0,0 +1,124 @@
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for QueryServer. Every connection pipelines batches of random
+ * queries, which are 70% ADJ, 25% DEG and 5% DEPTH, and waits for each batch to be
+ * answered before sending the next. Connections times depth queries are in flight at
+ * once. Without host:port it serves an R-MAT graph of the given scale itself:
+ * java QueryLoadGenerator [connections] [depth] [seconds] [scale | host:port]
+ */
+public class QueryLoadGenerator {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        String target = args.length > 3 ? args[3] : "16";
+
+        QueryServer server = null;
+        String host = "localhost";
+        int port;
+        if (target.contains(":")) {
+            host = target.substring(0, target.indexOf(':'));
+            port = Integer.parseInt(target.substring(target.indexOf(':') + 1));
+        } else {
+            Graph graph = GraphGenerator.rmat(Integer.parseInt(target), 8, 42).toGraph();
+            server = new QueryServer(graph, 65_536, 1000);
+            port = server.start(0);
+            System.out.printf("serving %d nodes, %d edges on %s threads%n", graph.numberOfNodes(),
+                    graph.numberOfEdges(), QueryServer.hasVirtualThreads() ? "virtual" : "platform");
+        }
+
+        int bound;
+        try (Socket socket = new Socket(host, port)) {
+            BufferedWriter out = writer(socket);
+            out.write("INFO\n");
+            out.flush();
+            bound = Integer.parseInt(reader(socket).readLine().split(" ")[2]);
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder answered = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder batchNanos = new LongAdder();
+        LongAdder batches = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            long seed = c;
+            String h = host;
+            threads.add(new Thread(() -> {
+                try (Socket socket = new Socket(h, port)) {
+                    socket.setTcpNoDelay(true);
+                    run(socket, bound, depth, seed, stop, answered, errors, batchNanos, batches);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (server != null) {
+            server.close();
+        }
+        System.out.printf("%d connections x %d in flight: %.0f queries/s, %d errors, %.2f ms per batch%n",
+                connections, depth, answered.sum() / (double) seconds, errors.sum(),
+                batchNanos.sum() / 1e6 / Math.max(1, batches.sum()));
+    }
+
+    private static void run(Socket socket, int bound, int depth, long seed, AtomicBoolean stop, LongAdder answered,
+                            LongAdder errors, LongAdder batchNanos, LongAdder batches) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        BufferedWriter out = writer(socket);
+        BufferedReader in = reader(socket);
+        StringBuilder batch = new StringBuilder();
+        while (!stop.get()) {
+            batch.setLength(0);
+            for (int i = 0; i < depth; i++) {
+                int kind = random.nextInt(100);
+                int x = random.nextInt(bound);
+                if (kind < 70) {
+                    batch.append("ADJ ").append(x).append(' ').append(random.nextInt(bound));
+                } else if (kind < 95) {
+                    batch.append("DEG ").append(x);
+                } else {
+                    batch.append("DEPTH ").append(x).append(' ').append(random.nextInt(bound));
+                }
+                batch.append('\n');
+            }
+            long start = System.nanoTime();
+            out.write(batch.toString());
+            out.flush();
+            for (int i = 0; i < depth; i++) {
+                String reply = in.readLine();
+                if (reply == null)
+                    throw new EOFException("Server closed the connection");
+                // ids the generator skipped are not nodes, which is an expected answer
+                if (reply.startsWith("ERR") && !reply.startsWith("ERR no node")) {
+                    errors.increment();
+                }
+            }
+            batchNanos.add(System.nanoTime() - start);
+            batches.increment();
+            answered.add(depth);
+        }
+    }
+
+    private static BufferedWriter writer(Socket socket) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), 1 << 16);
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 1 << 16);
+    }
+}
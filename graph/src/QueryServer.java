@@ -0,0 +1,330 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Answers adjacency, degree and distance queries about a read-only graph over a line
+ * protocol on a loopback TCP port. Every request is one line and gets one line back:
+ * <pre>
+ *   ADJ x y     1 if there is an edge x -> y, else 0
+ *   DEG x       the degree of x
+ *   DEPTH x y   the number of hops from x to y, -1 if y is unreachable
+ *   DIST x y    the weighted distance from x to y, -1 if y is unreachable
+ *   INFO        "nodes edges bound"
+ * </pre>
+ * Failures come back as "ERR message". Clients may pipeline: a connection reads
+ * requests as fast as they arrive, hands each one to its own task, and writes the
+ * answers in request order. It flushes only when no further answer is waiting.
+ * <p>
+ * Connections and queries run on virtual threads when the runtime has them (Java 21
+ * and later). Otherwise connections get platform threads and queries share a pool
+ * with one thread per core. A semaphore bounds the queries in flight across all
+ * connections. A request waits for a permit at most as long as its timeout allows
+ * and is refused as busy after that. Every query has a deadline: a query still
+ * queued at its deadline is not started, and DEPTH and DIST check the deadline as
+ * they search and give up, releasing their permits. ADJ, DEG and INFO take at most
+ * a pass over one row, so a late one is only answered with "ERR timeout".
+ * <p>
+ * A Graph is served through a snapshot of it. Other graphs are served as given and
+ * must tolerate concurrent readers, as CsrGraph, MappedCsrGraph and ConcurrentGraph do.
+ */
+public class QueryServer implements Closeable {
+    private static final int DEADLINE_CHECK = 1024;
+
+    private final IGraph graph;
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final ExecutorService connections;
+    private final ExecutorService queries;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private ServerSocket server;
+
+    // an answer the connection still has to write, due by deadline
+    private static class Pending {
+        private static final Pending END = new Pending(null, 0);
+
+        private final Future<String> answer;
+        private final long deadline;
+
+        private Pending(Future<String> answer, long deadline) {
+            this.answer = answer;
+            this.deadline = deadline;
+        }
+    }
+
+    public QueryServer(IGraph graph) {
+        this(graph, 10_000, 1000);
+    }
+
+    public QueryServer(IGraph graph, int maxInFlight, long timeoutMillis) {
+        this.graph = graph instanceof Graph ? ((Graph) graph).snapshot() : graph;
+        this.permits = new Semaphore(maxInFlight);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        ExecutorService virtual = virtualThreads();
+        if (virtual != null) {
+            this.connections = virtual;
+            this.queries = virtual;
+        } else {
+            this.connections = Executors.newCachedThreadPool(daemon("query-connection"));
+            this.queries = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemon("query"));
+        }
+    }
+
+    // newVirtualThreadPerTaskExecutor, looked up so that the class still runs on Java 17
+    private static ExecutorService virtualThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // listens on the loopback port, 0 for any free one, and returns the port taken
+    public int start(int port) throws IOException {
+        if (server != null)
+            throw new RuntimeException("Server already started");
+        server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        connections.execute(this::accept);
+        return server.getLocalPort();
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                connections.execute(() -> serve(socket));
+            }
+        } catch (IOException e) {
+            // the server socket was closed
+        }
+    }
+
+    // reads requests on this thread and writes the answers, in order, on another
+    private void serve(Socket socket) {
+        BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+        Future<?> writer = null;
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+            writer = connections.submit(() -> write(out, pending));
+            String line;
+            while ((line = in.readLine()) != null) {
+                pending.add(submit(line));
+            }
+        } catch (IOException e) {
+            // the client went away
+        } finally {
+            pending.add(Pending.END);
+            sockets.remove(socket);
+        }
+        if (writer != null) {
+            try {
+                writer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                // nothing left to answer to
+            }
+        }
+    }
+
+    private Pending submit(String line) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        CompletableFuture<String> answer = new CompletableFuture<>();
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                answer.complete("ERR busy");
+                return new Pending(answer, deadline);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            answer.complete("ERR busy");
+            return new Pending(answer, deadline);
+        }
+        try {
+            queries.execute(() -> {
+                try {
+                    if (System.nanoTime() > deadline)
+                        throw new RuntimeException("timeout");
+                    answer.complete(answer(line, deadline));
+                } catch (RuntimeException e) {
+                    answer.complete("ERR " + e.getMessage());
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            answer.complete("ERR shutting down");
+        }
+        return new Pending(answer, deadline);
+    }
+
+    private void write(BufferedWriter out, BlockingQueue<Pending> pending) {
+        try {
+            for (Pending next = pending.take(); next != Pending.END; next = pending.take()) {
+                String reply;
+                try {
+                    reply = next.answer.get(Math.max(0, next.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    reply = "ERR timeout";
+                } catch (ExecutionException e) {
+                    reply = "ERR " + e.getCause().getMessage();
+                }
+                out.write(reply);
+                out.newLine();
+                if (pending.isEmpty()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException | InterruptedException e) {
+            // the connection is gone; the reader sees it too
+        }
+    }
+
+    /**
+     * Answers one request line; throws RuntimeException with the message to send back.
+     */
+    public String answer(String line, long deadline) {
+        String[] words = line.trim().split("\\s+");
+        switch (words[0].toUpperCase()) {
+            case "ADJ":
+                arguments(words, 2);
+                return graph.areAdjacent(node(words[1]), node(words[2])) ? "1" : "0";
+            case "DEG":
+                arguments(words, 1);
+                return String.valueOf(graph.grad(node(words[1])));
+            case "DEPTH":
+                arguments(words, 2);
+                return String.valueOf(depth(node(words[1]), node(words[2]), deadline));
+            case "DIST":
+                arguments(words, 2);
+                PathResult path = BidirectionalSearch.run(graph, node(words[1]), node(words[2]), deadline);
+                return path.isReachable() ? String.valueOf(path.distance()) : "-1";
+            case "INFO":
+                arguments(words, 0);
+                return graph.numberOfNodes() + " " + graph.numberOfEdges() + " " + graph.bound();
+            default:
+                throw new RuntimeException("unknown command " + words[0]);
+        }
+    }
+
+    private static void arguments(String[] words, int count) {
+        if (words.length != count + 1)
+            throw new RuntimeException(words[0] + " takes " + count + " arguments");
+    }
+
+    private int node(String word) {
+        int x;
+        try {
+            x = Integer.parseInt(word);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("not a node: " + word);
+        }
+        if (!graph.containsNode(x))
+            throw new RuntimeException("no node " + x);
+        return x;
+    }
+
+    // level by level with early exit; the frontiers and the visited set grow with the search, not the graph
+    private int depth(int source, int target, long deadline) {
+        if (source == target) {
+            return 0;
+        }
+        BitSet visited = new BitSet();
+        visited.set(source);
+        int[][] frontier = {new int[16], new int[16]};
+        int[] size = {1, 0};
+        frontier[0][0] = source;
+        boolean[] found = {false};
+        for (int level = 1; size[0] > 0; level++) {
+            size[1] = 0;
+            for (int i = 0; i < size[0]; i++) {
+                if (i % DEADLINE_CHECK == 0 && System.nanoTime() > deadline)
+                    throw new RuntimeException("timeout");
+                graph.forEachNeighbor(frontier[0][i], y -> {
+                    if (!visited.get(y)) {
+                        visited.set(y);
+                        found[0] |= y == target;
+                        if (size[1] == frontier[1].length) {
+                            frontier[1] = Arrays.copyOf(frontier[1], size[1] * 2);
+                        }
+                        frontier[1][size[1]++] = y;
+                    }
+                });
+                if (found[0]) {
+                    return level;
+                }
+            }
+            int[] swap = frontier[0];
+            frontier[0] = frontier[1];
+            frontier[1] = swap;
+            size[0] = size[1];
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+        connections.shutdownNow();
+        queries.shutdownNow();
+    }
+
+    // java QueryServer file port [oriented] [weighted] [header]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("java QueryServer file port [oriented] [weighted] [header]");
+            return;
+        }
+        boolean oriented = args.length > 2 && Boolean.parseBoolean(args[2]);
+        boolean weighted = args.length > 3 && Boolean.parseBoolean(args[3]);
+        boolean header = args.length > 4 && Boolean.parseBoolean(args[4]);
+        CsrGraph graph = CsrGraph.fromFile(new File(args[0]), oriented, weighted, header);
+        QueryServer server = new QueryServer(graph);
+        int port = server.start(Integer.parseInt(args[1]));
+        System.out.printf("%d nodes, %d edges on port %d, %s threads%n", graph.numberOfNodes(),
+                graph.numberOfEdges(), port, hasVirtualThreads() ? "virtual" : "platform");
+        Thread.currentThread().join();
+    }
+}
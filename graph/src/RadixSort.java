@@ -0,0 +1,110 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallel LSD radix sort of non-negative long keys, carrying an optional int payload
+ * along. Every pass sorts 11 bits: the chunks count their digits in parallel, the
+ * counts are turned into per-chunk offsets, and then every chunk scatters its keys in
+ * parallel. The passes are stable. Only the bits some key actually uses are sorted,
+ * and a pass whose digits are all equal is skipped.
+ */
+public class RadixSort {
+    private static final int BITS = 11;
+    private static final int RADIX = 1 << BITS;
+    private static final int MIN_CHUNK = 1 << 16;
+
+    public static void sort(long[] keys, int[] values, int n) {
+        sort(keys, values, n, ForkJoinPool.commonPool());
+    }
+
+    // sorts keys[0 .. n) ascending and moves values[i], if values is not null, with keys[i]
+    public static void sort(long[] keys, int[] values, int n, ForkJoinPool pool) {
+        long used = 0;
+        for (int i = 0; i < n; i++) {
+            if (keys[i] < 0)
+                throw new RuntimeException("Negative key " + keys[i]);
+            used |= keys[i];
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(used);
+        if (n < 2 || bits == 0) {
+            return;
+        }
+
+        int chunks = (int) Math.max(1, Math.min(pool.getParallelism() * 4L, n / MIN_CHUNK));
+        int chunk = (n + chunks - 1) / chunks;
+        int[][] counts = new int[chunks][RADIX];
+        long[] from = keys;
+        long[] to = new long[n];
+        int[] fromValues = values;
+        int[] toValues = values == null ? null : new int[n];
+
+        for (int shift = 0; shift < bits; shift += BITS) {
+            long[] source = from;
+            long[] target = to;
+            int[] sourceValues = fromValues;
+            int[] targetValues = toValues;
+            int digitShift = shift;
+
+            forEachChunk(pool, chunks, c -> {
+                int[] count = counts[c];
+                Arrays.fill(count, 0);
+                for (int i = c * chunk, end = Math.min(n, i + chunk); i < end; i++) {
+                    count[(int) (source[i] >>> digitShift) & (RADIX - 1)]++;
+                }
+            });
+
+            // digit-major, chunk-minor offsets keep equal digits in input order
+            int sum = 0;
+            boolean single = false;
+            for (int d = 0; d < RADIX; d++) {
+                int start = sum;
+                for (int c = 0; c < chunks; c++) {
+                    int count = counts[c][d];
+                    counts[c][d] = sum;
+                    sum += count;
+                }
+                single |= sum - start == n;
+            }
+            if (single) {
+                continue;
+            }
+
+            forEachChunk(pool, chunks, c -> {
+                int[] offset = counts[c];
+                for (int i = c * chunk, end = Math.min(n, i + chunk); i < end; i++) {
+                    int j = offset[(int) (source[i] >>> digitShift) & (RADIX - 1)]++;
+                    target[j] = source[i];
+                    if (targetValues != null) targetValues[j] = sourceValues[i];
+                }
+            });
+            from = target;
+            to = source;
+            fromValues = targetValues;
+            toValues = sourceValues;
+        }
+
+        if (from != keys) {
+            System.arraycopy(from, 0, keys, 0, n);
+            if (values != null) System.arraycopy(fromValues, 0, values, 0, n);
+        }
+    }
+
+    private static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer work) {
+        if (chunks == 1) {
+            work.accept(0);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int index = c;
+            tasks.add(pool.submit(() -> work.accept(index)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+}
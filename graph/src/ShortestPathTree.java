@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Distances and predecessors of a single-source shortest path search, indexed by node.
+ */
+public class ShortestPathTree {
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final int source;
+    private final long[] distances;
+    private final int[] predecessors;
+
+    public ShortestPathTree(int source, long[] distances, int[] predecessors) {
+        this.source = source;
+        this.distances = distances;
+        this.predecessors = predecessors;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public long distance(int x) {
+        return x >= 0 && x < distances.length ? distances[x] : UNREACHABLE;
+    }
+
+    public boolean isReachable(int x) {
+        return distance(x) != UNREACHABLE;
+    }
+
+    // -1 for the source and for unreachable nodes
+    public int predecessor(int x) {
+        return predecessors[x];
+    }
+
+    public long[] distances() {
+        return distances;
+    }
+
+    // nodes from the source to x, or an empty list when x is unreachable
+    public List<Integer> pathTo(int x) {
+        if (!isReachable(x)) {
+            return List.of();
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int v = x; v != -1; v = predecessors[v]) {
+            path.add(v);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // distances as ints, Integer.MAX_VALUE standing for unreachable or overflowing
+    public List<Integer> toList() {
+        List<Integer> result = new ArrayList<>(distances.length);
+        for (long d : distances) {
+            result.add((int) Math.min(d, Integer.MAX_VALUE));
+        }
+        return result;
+    }
+}